@@ -0,0 +1,248 @@
+/**
+ * JMH versions of the BenchmarkSuite benchmarks.
+ * <p>
+ * Each benchmark method runs the same body as the BenchmarkSuite measurement of the same name, on the
+ * same datasets, but lets JMH handle forking, warm-up and dead-code elimination. JMH reports the time
+ * per call of a body, while BenchmarkSuite divides it by the number of operations the body performs.
+ * The traversals write their tables to a discarding writer instead of standard output.
+ * <p>
+ * The dataset is one parameter, either "csv" or a distribution and size like "random/100000", so the
+ * fixed-size CSV dataset runs once instead of once per size.
+ * <p>
+ * Usage: mvn -B package && java -jar target/benchmarks.jar BenchmarkSuiteJmh [-p dataset=random/100000]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.Country;
+import bst.CountryColumn;
+import bst.CountryCsvLoader;
+import bst.HappinessSummary;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs the BenchmarkSuite bodies under JMH.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BenchmarkSuiteJmh {
+
+    /**
+     * The dataset of one benchmark run and the read-only tree built from it.
+     */
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"csv", "sorted/10000", "sorted/100000", "sorted/1000000", "reverse/10000", "reverse/100000",
+                "reverse/1000000", "random/10000", "random/100000", "random/1000000"})
+        public String dataset; // "csv", or a synthetic distribution of BenchmarkSuite and a size.
+
+        @Param({"src/data/Countries4.csv"})
+        public String csv; // CSV file of the csv dataset.
+
+        Path file; // CSV file holding the dataset, for the loading benchmark.
+        List<Country> countries; // The countries in insertion order.
+        Country[] batch; // The countries as an array, for insertAll.
+        List<Country> head; // The first 90% of the countries.
+        Country[] tail; // The last 10% of the countries.
+        String[] lookups; // The names in shuffled order.
+        BinarySearchTree loaded; // Tree holding every country, never modified.
+
+        /**
+         * Creates the dataset, writing synthetic countries to a temporary CSV file like BenchmarkSuite.
+         *
+         * @throws IOException If the CSV file cannot be read or written.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            if (dataset.equals("csv")) {
+                file = Path.of(csv);
+            } else {
+                String distribution = dataset.substring(0, dataset.indexOf('/'));
+                int size = Integer.parseInt(dataset.substring(dataset.indexOf('/') + 1));
+                file = Files.createTempFile("countries-" + distribution + "-" + size, ".csv");
+                BenchmarkSuite.writeCsv(file, BenchmarkSuite.syntheticCountries(size, distribution));
+            }
+            countries = BenchmarkSuite.readCountries(file);
+            int count = countries.size();
+            batch = countries.toArray(new Country[0]);
+            head = countries.subList(0, count - count / 10);
+            tail = countries.subList(count - count / 10, count).toArray(new Country[0]);
+            lookups = new String[count];
+            for (int i = 0; i < count; i++) {
+                lookups[i] = countries.get(i).getCountryName();
+            }
+            Collections.shuffle(Arrays.asList(lookups), new Random(7));
+            loaded = BenchmarkSuite.build(countries);
+        }
+
+        /**
+         * Deletes the temporary CSV file of a synthetic dataset.
+         *
+         * @throws IOException If the file cannot be deleted.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (!dataset.equals("csv")) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * A fresh tree holding every country, rebuilt before each call of a benchmark that empties it.
+     */
+    @State(Scope.Thread)
+    public static class FullTree {
+        BinarySearchTree tree; // Tree holding every country.
+
+        /**
+         * Builds the tree outside the measured time.
+         *
+         * @param dataset The dataset.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(Dataset dataset) {
+            tree = BenchmarkSuite.build(dataset.countries);
+        }
+    }
+
+    /**
+     * A fresh tree holding the first 90% of the countries, rebuilt before each call.
+     */
+    @State(Scope.Thread)
+    public static class HeadTree {
+        BinarySearchTree tree; // Tree holding the head of the dataset.
+
+        /**
+         * Builds the tree outside the measured time.
+         *
+         * @param dataset The dataset.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(Dataset dataset) {
+            tree = BenchmarkSuite.build(dataset.head);
+        }
+    }
+
+    @Benchmark
+    public BinarySearchTree insert(Dataset dataset) {
+        return BenchmarkSuite.build(dataset.countries);
+    }
+
+    @Benchmark
+    public void find(Dataset dataset, Blackhole blackhole) {
+        for (String name : dataset.lookups) {
+            blackhole.consume(dataset.loaded.find(name));
+        }
+    }
+
+    @Benchmark
+    public BinarySearchTree delete(Dataset dataset, FullTree full) {
+        for (String name : dataset.lookups) {
+            full.tree.delete(name);
+        }
+        return full.tree;
+    }
+
+    @Benchmark
+    public int insertAll(Dataset dataset) {
+        return new BinarySearchTree(true).insertAll(dataset.batch);
+    }
+
+    @Benchmark
+    public int insertAllTail(Dataset dataset, HeadTree head) {
+        return head.tree.insertAll(dataset.tail);
+    }
+
+    @Benchmark
+    public double[] findAll(Dataset dataset) {
+        return dataset.loaded.findAll(dataset.lookups);
+    }
+
+    @Benchmark
+    public int deleteAll(Dataset dataset, FullTree full) {
+        return full.tree.deleteAll(dataset.lookups);
+    }
+
+    @Benchmark
+    public String[] getTopCountries(Dataset dataset) {
+        return dataset.loaded.getTopCountries(BenchmarkSuite.TOP_COUNT);
+    }
+
+    @Benchmark
+    public String[] getBottomCountries(Dataset dataset) {
+        return dataset.loaded.getBottomCountries(BenchmarkSuite.TOP_COUNT);
+    }
+
+    @Benchmark
+    public Country[] getTopCountriesByArea(Dataset dataset) {
+        return dataset.loaded.getTopCountries(CountryColumn.AREA, BenchmarkSuite.TOP_COUNT);
+    }
+
+    @Benchmark
+    public Object statistics(Dataset dataset) {
+        return dataset.loaded.statistics(CountryColumn.HAPPINESS);
+    }
+
+    @Benchmark
+    public HappinessSummary summarizeRange(Dataset dataset) {
+        return dataset.loaded.summarizeRange("A", "z");
+    }
+
+    @Benchmark
+    public double percentile(Dataset dataset) {
+        return dataset.loaded.percentile(50);
+    }
+
+    @Benchmark
+    public int[] histogram(Dataset dataset) {
+        return dataset.loaded.histogram(BenchmarkSuite.HISTOGRAM_EDGES);
+    }
+
+    @Benchmark
+    public void printInorder(Dataset dataset) throws IOException {
+        dataset.loaded.writeInorder(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void printPreorder(Dataset dataset) throws IOException {
+        dataset.loaded.writePreorder(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void printPostorder(Dataset dataset) throws IOException {
+        dataset.loaded.writePostorder(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public BinarySearchTree loadCSVData(Dataset dataset) throws IOException {
+        return CountryCsvLoader.load(dataset.file, true);
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * JMH version of ConcurrentReadBenchmark.
+ * <p>
+ * Each group runs find on one tree while a single writer thread inserts and deletes a country about
+ * once per millisecond: "lockFree" reads a ConcurrentBinarySearchTree, "globalLock" reads a
+ * BinarySearchTree guarded by one lock that the writer also takes. The number of reader threads is the
+ * thread-count parameter; main runs both groups for 1, 2, 4, ... readers up to the number of
+ * processors, and the jar takes it as the first thread-group count, e.g. -tg 4,1.
+ * <p>
+ * Usage: mvn -B package && java -cp target/benchmarks.jar bench.ConcurrentReadJmh [size] [readers,...]
+ * <br>
+ * or: java -jar target/benchmarks.jar ConcurrentReadJmh -tg 4,1 [-p size=1000000]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.ConcurrentBinarySearchTree;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares lock-free reads with reads serialized behind a global lock, under JMH.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentReadJmh {
+    private static final String WRITER_KEY = "Writer Country"; // Key the writer inserts and deletes.
+    private static final long WRITER_PAUSE_NANOS = 1_000_000; // Pause between two writes.
+
+    /**
+     * The keys the readers look up, shared by every thread of a run.
+     */
+    @State(Scope.Benchmark)
+    public static class Keys {
+        @Param({"100000"})
+        public int size; // Number of keys in the tree.
+
+        String[] keys; // The keys, in the insertion order of ConcurrentReadBenchmark.
+
+        /**
+         * Creates the keys.
+         */
+        @Setup
+        public void setUp() {
+            keys = new String[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = String.format("Country %08d", (i * 7919L) % size);
+            }
+        }
+    }
+
+    /**
+     * The concurrent tree read by the lockFree group.
+     */
+    @State(Scope.Group)
+    public static class LockFree {
+        ConcurrentBinarySearchTree tree; // Tree holding every key.
+
+        /**
+         * Fills the tree.
+         *
+         * @param keys The keys.
+         */
+        @Setup
+        public void setUp(Keys keys) {
+            tree = new ConcurrentBinarySearchTree();
+            for (int i = 0; i < keys.size; i++) {
+                tree.insert(keys.keys[i], i);
+            }
+        }
+    }
+
+    /**
+     * The plain tree and its lock, read by the globalLock group.
+     */
+    @State(Scope.Group)
+    public static class GlobalLock {
+        final Object lock = new Object(); // Lock guarding every access to the tree.
+        BinarySearchTree tree; // Tree holding every key.
+
+        /**
+         * Fills the tree.
+         *
+         * @param keys The keys.
+         */
+        @Setup
+        public void setUp(Keys keys) {
+            tree = new BinarySearchTree(true);
+            for (int i = 0; i < keys.size; i++) {
+                tree.insert(keys.keys[i], i);
+            }
+        }
+    }
+
+    /**
+     * The position of one reader in the key sequence; readers start at different keys.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next; // Index of the next lookup.
+
+        /**
+         * Gives each reader its own starting point.
+         */
+        @Setup
+        public void setUp() {
+            next = (int) (Thread.currentThread().getId() & 0xffff);
+        }
+
+        // Helper method to pick the next key, stepping through the keys like ConcurrentReadBenchmark.
+        String next(String[] keys) {
+            return keys[(int) ((next++ * 31L) % keys.length)];
+        }
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    public double lockFreeFind(Keys keys, LockFree tree, Cursor cursor) {
+        return tree.tree.find(cursor.next(keys.keys));
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public void lockFreeWrite(LockFree tree) {
+        tree.tree.insert(WRITER_KEY, 1);
+        tree.tree.delete(WRITER_KEY);
+        LockSupport.parkNanos(WRITER_PAUSE_NANOS);
+    }
+
+    @Benchmark
+    @Group("globalLock")
+    public double globalLockFind(Keys keys, GlobalLock tree, Cursor cursor) {
+        String name = cursor.next(keys.keys);
+        synchronized (tree.lock) {
+            return tree.tree.find(name);
+        }
+    }
+
+    @Benchmark
+    @Group("globalLock")
+    @GroupThreads(1)
+    public void globalLockWrite(GlobalLock tree) {
+        synchronized (tree.lock) {
+            tree.tree.insert(WRITER_KEY, 1);
+            tree.tree.delete(WRITER_KEY);
+        }
+        LockSupport.parkNanos(WRITER_PAUSE_NANOS);
+    }
+
+    /**
+     * Runs both groups for each reader count, with one writer thread each time.
+     *
+     * @param args Optional number of keys (default 100000) and comma-separated reader counts
+     *             (default 1, 2, 4, ... up to the number of processors).
+     * @throws RunnerException If JMH fails to run the benchmarks.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String size = args.length > 0 ? args[0] : "100000";
+        int[] readerCounts;
+        if (args.length > 1) {
+            String[] parts = args[1].split(",");
+            readerCounts = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                readerCounts[i] = Integer.parseInt(parts[i].trim());
+            }
+        } else {
+            int processors = Runtime.getRuntime().availableProcessors();
+            readerCounts = new int[32 - Integer.numberOfLeadingZeros(processors)];
+            for (int i = 0; i < readerCounts.length; i++) {
+                readerCounts[i] = 1 << i;
+            }
+        }
+        for (int readers : readerCounts) {
+            new Runner(new OptionsBuilder()
+                    .include(ConcurrentReadJmh.class.getName() + "\\.")
+                    .param("size", size)
+                    .threadGroups(readers, 1)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Benchmark comparing the plain and the self-balancing BinarySearchTree.
+ * <p>
+ * For sorted, reverse-sorted and random insertion orders it builds both trees from the same synthetic
+ * country names and reports the resulting tree height and the average latency of a find call.
+ * <p>
+ * Usage: java bench.BalanceBenchmark [size] [lookups]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares tree depth and lookup latency of the plain and the AVL-balanced tree.
+ */
+public class BalanceBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of keys (default 5000) and number of timed lookups (default 200000).
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        String[] sorted = new String[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = String.format("Country %08d", i);
+        }
+        String[] reversed = sorted.clone();
+        Collections.reverse(Arrays.asList(reversed));
+        String[] random = sorted.clone();
+        Collections.shuffle(Arrays.asList(random), new Random(42));
+
+        System.out.printf("%-10s%-10s%10s%16s%n", "Order", "Tree", "Height", "ns/find");
+        System.out.println("----------------------------------------------");
+        for (String order : List.of("sorted", "reverse", "random")) {
+            String[] keys = order.equals("sorted") ? sorted : order.equals("reverse") ? reversed : random;
+            for (boolean balanced : new boolean[]{false, true}) {
+                BinarySearchTree tree = new BinarySearchTree(balanced);
+                for (int i = 0; i < keys.length; i++) {
+                    tree.insert(keys[i], i);
+                }
+                double nanos = timeFinds(tree, random, lookups);
+                System.out.printf("%-10s%-10s%10d%16.1f%n", order, balanced ? "avl" : "plain", tree.getHeight(), nanos);
+            }
+        }
+    }
+
+    /**
+     * Times repeated find calls over the given keys after a warm-up pass.
+     *
+     * @param tree    The tree to query.
+     * @param keys    The keys to look up, cycled through.
+     * @param lookups The number of timed lookups.
+     * @return The average time per lookup in nanoseconds.
+     */
+    private static double timeFinds(BinarySearchTree tree, String[] keys, int lookups) {
+        double sink = 0;
+        for (int i = 0; i < lookups; i++) {
+            sink += tree.find(keys[i % keys.length]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sink += tree.find(keys[i % keys.length]);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print(""); // Keep the lookups from being optimized away.
+        }
+        return (double) elapsed / lookups;
+    }
+}
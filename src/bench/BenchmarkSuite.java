@@ -0,0 +1,370 @@
+/**
+ * Regression benchmark suite for the bst package.
+ * <p>
+ * Measures insert, find, delete, their batch variants (insertAll, insertAllTail, findAll, deleteAll),
+ * getTopCountries, getBottomCountries, getTopCountriesByArea, statistics, summarizeRange, percentile,
+ * histogram, the three traversals and CSV loading for several dataset sizes and key distributions, and
+ * writes one CSV line per measurement so results of different releases can be compared with any
+ * spreadsheet or diff tool:
+ * <pre>
+ * benchmark,size,distribution,iterations,mean_ns_per_op,stddev_ns_per_op
+ * </pre>
+ * The "csv" distribution uses the countries of src/data/Countries4.csv; the synthetic distributions
+ * generate names in sorted, reverse-sorted or random order and write them to a temporary CSV file
+ * for the loading benchmark.
+ * <p>
+ * Usage: java bench.BenchmarkSuite [--sizes=10000,100000,1000000] [--distributions=csv,sorted,random]
+ * [--iterations=5] [--warmup=2] [--out=results.csv] [--csv=src/data/Countries4.csv]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.Country;
+import bst.CountryColumn;
+import bst.CountryCsvLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs every benchmark for every size and distribution and writes the results as CSV.
+ */
+public class BenchmarkSuite {
+    static final int TOP_COUNT = 10; // Number of countries requested from top/bottom queries.
+    static final double[] HISTOGRAM_EDGES = {0, 1, 2, 3, 4, 5, 6, 7, 8}; // Happiness buckets for histogram.
+
+    private final int iterations; // Measured iterations per benchmark.
+    private final int warmup; // Unmeasured warm-up iterations per benchmark.
+    private final PrintWriter out; // Destination of the CSV results.
+
+    /**
+     * A single benchmark body, run once per iteration.
+     */
+    @FunctionalInterface
+    private interface Body {
+        /**
+         * Prepares one iteration; not included in the measured time.
+         */
+        default void setUp() {
+        }
+
+        /**
+         * Runs the benchmark once.
+         *
+         * @return The number of operations performed, used to normalize the time.
+         * @throws IOException If the benchmark reads files and that fails.
+         */
+        long run() throws IOException;
+    }
+
+    /**
+     * Constructor to create a suite.
+     *
+     * @param iterations Measured iterations per benchmark.
+     * @param warmup     Unmeasured warm-up iterations per benchmark.
+     * @param out        Destination of the CSV results.
+     */
+    private BenchmarkSuite(int iterations, int warmup, PrintWriter out) {
+        this.iterations = iterations;
+        this.warmup = warmup;
+        this.out = out;
+    }
+
+    /**
+     * Runs the suite.
+     *
+     * @param args Options as described in the class comment.
+     * @throws IOException If the CSV data cannot be read or the results cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        List<Integer> sizes = List.of(10_000, 100_000, 1_000_000);
+        List<String> distributions = List.of("csv", "sorted", "random");
+        int iterations = 5;
+        int warmup = 2;
+        Path output = null;
+        Path csv = Path.of("src/data/Countries4.csv");
+
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--sizes=")) {
+                sizes = new ArrayList<>();
+                for (String size : value.split(",")) {
+                    sizes.add(Integer.parseInt(size));
+                }
+            } else if (arg.startsWith("--distributions=")) {
+                distributions = Arrays.asList(value.split(","));
+            } else if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(value);
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(value);
+            } else if (arg.startsWith("--out=")) {
+                output = Path.of(value);
+            } else if (arg.startsWith("--csv=")) {
+                csv = Path.of(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        try (PrintWriter out = output == null
+                ? new PrintWriter(System.out, true)
+                : new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            out.println("benchmark,size,distribution,iterations,mean_ns_per_op,stddev_ns_per_op");
+            BenchmarkSuite suite = new BenchmarkSuite(iterations, warmup, out);
+            for (String distribution : distributions) {
+                if (distribution.equals("csv")) {
+                    suite.runAll(csv, distribution); // The CSV has a fixed size.
+                    continue;
+                }
+                for (int size : sizes) {
+                    Path file = Files.createTempFile("countries-" + distribution + "-" + size, ".csv");
+                    try {
+                        writeCsv(file, syntheticCountries(size, distribution));
+                        suite.runAll(file, distribution);
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs every benchmark on the countries of one CSV file, inserted in file order.
+     *
+     * @param file         The CSV file.
+     * @param distribution The label of the key distribution.
+     * @throws IOException If the file cannot be read.
+     */
+    private void runAll(Path file, String distribution) throws IOException {
+        List<Country> countries = readCountries(file);
+        int size = countries.size();
+        String[] lookups = new String[size];
+        for (int i = 0; i < size; i++) {
+            lookups[i] = countries.get(i).getCountryName();
+        }
+        Collections.shuffle(Arrays.asList(lookups), new Random(7));
+
+        BinarySearchTree loaded = build(countries);
+        PrintStream stdout = System.out;
+
+        measure("insert", size, distribution, () -> {
+            build(countries);
+            return size;
+        });
+        measure("find", size, distribution, () -> {
+            double sink = 0;
+            for (String name : lookups) {
+                sink += loaded.find(name);
+            }
+            return sink == -42 ? size + 1 : size;
+        });
+        measure("delete", size, distribution, new Body() {
+            private BinarySearchTree tree;
+
+            @Override
+            public void setUp() {
+                tree = build(countries);
+            }
+
+            @Override
+            public long run() {
+                for (String name : lookups) {
+                    tree.delete(name);
+                }
+                return size;
+            }
+        });
+        Country[] batch = countries.toArray(new Country[0]);
+        measure("insertAll", size, distribution, () -> {
+            new BinarySearchTree(true).insertAll(batch);
+            return size;
+        });
+        List<Country> head = countries.subList(0, size - size / 10);
+        Country[] tail = countries.subList(size - size / 10, size).toArray(new Country[0]);
+        measure("insertAllTail", size, distribution, new Body() {
+            private BinarySearchTree tree;
+
+            @Override
+            public void setUp() {
+                tree = build(head);
+            }
+
+            @Override
+            public long run() {
+                tree.insertAll(tail);
+                return Math.max(1, tail.length);
+            }
+        });
+        measure("findAll", size, distribution, () -> {
+            loaded.findAll(lookups);
+            return size;
+        });
+        measure("deleteAll", size, distribution, new Body() {
+            private BinarySearchTree tree;
+
+            @Override
+            public void setUp() {
+                tree = build(countries);
+            }
+
+            @Override
+            public long run() {
+                tree.deleteAll(lookups);
+                return size;
+            }
+        });
+        measure("getTopCountries", size, distribution, () -> {
+            loaded.getTopCountries(TOP_COUNT);
+            return 1;
+        });
+        measure("getBottomCountries", size, distribution, () -> {
+            loaded.getBottomCountries(TOP_COUNT);
+            return 1;
+        });
+        measure("getTopCountriesByArea", size, distribution, () -> {
+            loaded.getTopCountries(CountryColumn.AREA, TOP_COUNT);
+            return size;
+        });
+        measure("statistics", size, distribution, () -> {
+            loaded.statistics(CountryColumn.HAPPINESS);
+            return size;
+        });
+        measure("summarizeRange", size, distribution, () -> {
+            loaded.summarizeRange("A", "z");
+            return 1;
+        });
+        measure("percentile", size, distribution, () -> {
+            loaded.percentile(50);
+            return 1;
+        });
+        measure("histogram", size, distribution, () -> {
+            loaded.histogram(HISTOGRAM_EDGES);
+            return 1;
+        });
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            measure("printInorder", size, distribution, () -> {
+                loaded.printInorder();
+                return size;
+            });
+            measure("printPreorder", size, distribution, () -> {
+                loaded.printPreorder();
+                return size;
+            });
+            measure("printPostorder", size, distribution, () -> {
+                loaded.printPostorder();
+                return size;
+            });
+        } finally {
+            System.setOut(stdout);
+        }
+        measure("loadCSVData", size, distribution, () -> {
+            CountryCsvLoader.load(file, true);
+            return size;
+        });
+    }
+
+    /**
+     * Runs a benchmark body for the warm-up and measured iterations and writes one result line.
+     *
+     * @param name         The benchmark name.
+     * @param size         The dataset size.
+     * @param distribution The key distribution.
+     * @param body         The benchmark body.
+     * @throws IOException If the body fails.
+     */
+    private void measure(String name, int size, String distribution, Body body) throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            body.setUp();
+            body.run();
+        }
+        double[] nanosPerOp = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            body.setUp();
+            long start = System.nanoTime();
+            long operations = body.run();
+            nanosPerOp[i] = (double) (System.nanoTime() - start) / operations;
+        }
+
+        double mean = Arrays.stream(nanosPerOp).average().orElse(0);
+        double variance = Arrays.stream(nanosPerOp).map(x -> (x - mean) * (x - mean)).sum()
+                / Math.max(1, iterations - 1);
+        out.printf("%s,%d,%s,%d,%.2f,%.2f%n", name, size, distribution, iterations, mean, Math.sqrt(variance));
+        out.flush();
+    }
+
+    /**
+     * Read the names and happiness indices of the countries of a CSV file, in file order.
+     *
+     * @param file The CSV file.
+     * @return The countries.
+     * @throws IOException If the file cannot be read.
+     */
+    static List<Country> readCountries(Path file) throws IOException {
+        List<Country> countries = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] data = line.split(",");
+            countries.add(new Country(data[0], Double.parseDouble(data[5])));
+        }
+        return countries;
+    }
+
+    // Helper method to build a balanced tree by inserting countries one at a time.
+    static BinarySearchTree build(List<Country> countries) {
+        BinarySearchTree tree = new BinarySearchTree(true);
+        for (Country country : countries) {
+            tree.insert(country);
+        }
+        return tree;
+    }
+
+    /**
+     * Generate synthetic countries with random happiness indices in the given name order.
+     *
+     * @param size         The number of countries.
+     * @param distribution sorted, reverse or random.
+     * @return The countries in insertion order.
+     */
+    static List<Country> syntheticCountries(int size, String distribution) {
+        Random random = new Random(size);
+        List<Country> countries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            countries.add(new Country(String.format("Country %09d", i), Math.round(random.nextDouble() * 8000) / 1000.0));
+        }
+        switch (distribution) {
+            case "sorted":
+                break;
+            case "reverse":
+                Collections.reverse(countries);
+                break;
+            case "random":
+                Collections.shuffle(countries, random);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
+        return countries;
+    }
+
+    // Helper method to write countries in the Countries4.csv layout.
+    static void writeCsv(Path file, List<Country> countries) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("Country Name,Capital City,Population,GDP,Area,Happiness Index");
+            for (Country country : countries) {
+                writer.println(country.getCountryName() + ",Capital,1000000,1.0E+9,1000," + country.getHappiness());
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Multi-threaded benchmark of read throughput under a light write load.
+ * <p>
+ * For 1, 2, 4, ... reader threads (up to the number of processors) it measures find throughput on a
+ * ConcurrentBinarySearchTree and on a BinarySearchTree guarded by a single lock, while one writer thread
+ * keeps inserting and deleting a country about once per millisecond.
+ * The JMH version, with forking and warm-up, is jmh/bench/ConcurrentReadJmh.
+ * <p>
+ * Usage: java bench.ConcurrentReadBenchmark [size] [millisPerRun]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.ConcurrentBinarySearchTree;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares lock-free reads with reads serialized behind a global lock.
+ */
+public class ConcurrentReadBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of keys (default 100000) and duration of each run in ms (default 1000).
+     * @throws InterruptedException If the benchmark thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        String[] keys = new String[size];
+        ConcurrentBinarySearchTree concurrent = new ConcurrentBinarySearchTree();
+        BinarySearchTree locked = new BinarySearchTree(true);
+        for (int i = 0; i < size; i++) {
+            keys[i] = String.format("Country %08d", (i * 7919L) % size);
+            concurrent.insert(keys[i], i);
+            locked.insert(keys[i], i);
+        }
+        Object lock = new Object();
+
+        System.out.printf("%-10s%22s%22s%n", "Readers", "lock-free ops/s", "global-lock ops/s");
+        System.out.println("------------------------------------------------------");
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int readers = 1; readers <= processors; readers *= 2) {
+            double lockFree = run(readers, millis, keys, concurrent::find,
+                    () -> {
+                        concurrent.insert("Writer Country", 1);
+                        concurrent.delete("Writer Country");
+                    });
+            double globalLock = run(readers, millis, keys,
+                    name -> {
+                        synchronized (lock) {
+                            return locked.find(name);
+                        }
+                    },
+                    () -> {
+                        synchronized (lock) {
+                            locked.insert("Writer Country", 1);
+                            locked.delete("Writer Country");
+                        }
+                    });
+            System.out.printf("%-10d%22.0f%22.0f%n", readers, lockFree, globalLock);
+        }
+    }
+
+    /**
+     * Runs reader threads against a lookup function while one writer applies updates.
+     *
+     * @param readers The number of reader threads.
+     * @param millis  The duration of the run in milliseconds.
+     * @param keys    The keys the readers look up.
+     * @param find    The lookup under test.
+     * @param write   One update, applied repeatedly by the writer thread.
+     * @return The total number of lookups per second across all readers.
+     * @throws InterruptedException If the benchmark thread is interrupted.
+     */
+    private static double run(int readers, long millis, String[] keys, ToDoubleFunction<String> find,
+                              Runnable write) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+        Thread[] threads = new Thread[readers + 1];
+        for (int t = 0; t < readers; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                long count = 0;
+                double sink = 0;
+                for (int i = seed; running.get(); i++) {
+                    sink += find.applyAsDouble(keys[(i * 31) % keys.length]);
+                    count++;
+                }
+                operations.add(sink == -42 ? count + 1 : count);
+            });
+        }
+        threads[readers] = new Thread(() -> {
+            while (running.get()) {
+                write.run();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(millis);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return operations.sum() * 1000.0 / millis;
+    }
+}
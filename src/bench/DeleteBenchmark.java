@@ -0,0 +1,94 @@
+/**
+ * Benchmark of BinarySearchTree.delete against java.util.TreeMap. The randomized check of delete
+ * against TreeMap is the test bst.BinarySearchTreeDifferentialTest.
+ * <p>
+ * It deletes every country of a tree in random order and reports, per delete, the number of nodes
+ * visited on the way down and the time taken, next to TreeMap.remove. Visits are derived from
+ * the node depths before each delete: a single descent visits the node and, for a node with two
+ * children, continues to the successor; the original recursive delete, which copied the successor's
+ * name and then ran a second delete for it down the right subtree, walks that stretch twice.
+ * <p>
+ * Usage: java bench.DeleteBenchmark [size]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.Country;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Measures the node visits and latency of delete.
+ */
+public class DeleteBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional tree size (default 100000).
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        System.out.printf("%-10s%18s%18s%14s%16s%n", "Tree", "visits/delete", "recursive copy", "ns/delete", "TreeMap ns");
+        System.out.println("--------------------------------------------------------------------------");
+        for (boolean balanced : new boolean[]{false, true}) {
+            measureDeletes(balanced, size);
+        }
+    }
+
+    /**
+     * Deletes every country of a tree in random order and prints visits and latency per delete.
+     *
+     * @param balanced true to measure the self-balancing tree.
+     * @param size     The number of countries.
+     */
+    private static void measureDeletes(boolean balanced, int size) {
+        List<Country> countries = BenchmarkSuite.syntheticCountries(size, "random");
+        BinarySearchTree tree = new BinarySearchTree(balanced);
+        TreeMap<String, Double> map = new TreeMap<>();
+        for (Country country : countries) {
+            tree.insert(country);
+            map.put(country.getCountryName(), country.getHappiness());
+        }
+        String[] order = new String[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = countries.get(i).getCountryName();
+        }
+        Collections.shuffle(Arrays.asList(order), new Random(11));
+
+        // Count visits on a copy, since measuring depths costs extra descents.
+        BinarySearchTree counted = new BinarySearchTree(balanced);
+        countries.forEach(counted::insert);
+        long visits = 0;
+        long recursiveVisits = 0;
+        for (String name : order) {
+            int depth = counted.depth(name);
+            String lower = counted.lower(name);
+            String higher = counted.higher(name);
+            boolean twoChildren = lower != null && higher != null
+                    && counted.depth(lower) > depth && counted.depth(higher) > depth;
+            int successorDepth = twoChildren ? counted.depth(higher) : depth;
+            visits += successorDepth;
+            recursiveVisits += depth + 2L * (successorDepth - depth);
+            counted.delete(name);
+        }
+
+        long start = System.nanoTime();
+        for (String name : order) {
+            tree.delete(name);
+        }
+        long treeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (String name : order) {
+            map.remove(name);
+        }
+        long mapNanos = System.nanoTime() - start;
+
+        System.out.printf("%-10s%18.2f%18.2f%14.1f%16.1f%n", balanced ? "avl" : "plain", (double) visits / size,
+                (double) recursiveVisits / size, (double) treeNanos / size, (double) mapNanos / size);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Benchmark of lookups in a frozen tree against the pointer tree it was made from and a TreeMap.
+ * <p>
+ * For each size it loads random country-like names into a balanced BinarySearchTree in random order,
+ * freezes it, and times the same random sequence of successful lookups on the tree, the frozen copy and
+ * a TreeMap. Sizes from about a million names upwards no longer fit the L2 and L3 caches, so every
+ * level of a pointer search that is not near the root costs a cache miss.
+ * <p>
+ * Usage: java bench.FrozenBenchmark [sizes] [lookups]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.Country;
+import bst.FrozenTree;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compares find latency of BinarySearchTree, its frozen copy and TreeMap at several sizes.
+ */
+public class FrozenBenchmark {
+    private static final int ROUNDS = 5; // Measured rounds per structure; the best one is reported.
+
+    private static double sink; // Consumes lookup results so they are not optimized away.
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional comma-separated sizes (default 10000,100000,1000000,4000000) and number of
+     *             timed lookups per round (default 1000000).
+     */
+    public static void main(String[] args) {
+        String sizes = args.length > 0 ? args[0] : "10000,100000,1000000,4000000";
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        System.out.printf("%-12s%16s%16s%16s%n", "Size", "tree ns/find", "frozen ns/find", "TreeMap ns/find");
+        System.out.println("------------------------------------------------------------");
+        for (String size : sizes.split(",")) {
+            run(Integer.parseInt(size.trim()), lookups);
+        }
+        if (sink == 42) {
+            System.out.print(""); // Keep the lookups from being optimized away.
+        }
+    }
+
+    /**
+     * Builds the structures for one size and prints their lookup latency.
+     *
+     * @param size    The number of names.
+     * @param lookups The number of lookups per round.
+     */
+    private static void run(int size, int lookups) {
+        Random random = new Random(size);
+        String[] names = names(size, random);
+        BinarySearchTree tree = new BinarySearchTree(true);
+        TreeMap<String, Double> map = new TreeMap<>();
+        for (String name : names) {
+            double happiness = random.nextInt(8000) / 1000.0;
+            tree.insert(new Country(name, happiness));
+            map.put(name, happiness);
+        }
+        FrozenTree frozen = tree.freeze();
+
+        String[] probes = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            probes[i] = names[random.nextInt(size)];
+        }
+
+        double treeNanos = Double.MAX_VALUE;
+        double frozenNanos = Double.MAX_VALUE;
+        double mapNanos = Double.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) { // Round 0 is warm-up.
+            long start = System.nanoTime();
+            for (String probe : probes) {
+                sink += tree.find(probe);
+            }
+            double nanos = (double) (System.nanoTime() - start) / lookups;
+            treeNanos = round == 0 ? treeNanos : Math.min(treeNanos, nanos);
+
+            start = System.nanoTime();
+            for (String probe : probes) {
+                sink += frozen.find(probe);
+            }
+            nanos = (double) (System.nanoTime() - start) / lookups;
+            frozenNanos = round == 0 ? frozenNanos : Math.min(frozenNanos, nanos);
+
+            start = System.nanoTime();
+            for (String probe : probes) {
+                sink += map.get(probe);
+            }
+            nanos = (double) (System.nanoTime() - start) / lookups;
+            mapNanos = round == 0 ? mapNanos : Math.min(mapNanos, nanos);
+        }
+        System.out.printf("%-12d%16.1f%16.1f%16.1f%n", size, treeNanos, frozenNanos, mapNanos);
+    }
+
+    /**
+     * Generate distinct capitalized names of 4 to 16 letters, which spread over the packed key prefixes
+     * the way real country names do, in random order.
+     *
+     * @param size   The number of names.
+     * @param random The source of randomness.
+     * @return The names.
+     */
+    private static String[] names(int size, Random random) {
+        Set<String> seen = new HashSet<>(size * 2);
+        String[] names = new String[size];
+        StringBuilder name = new StringBuilder();
+        int count = 0;
+        while (count < size) {
+            name.setLength(0);
+            name.append((char) ('A' + random.nextInt(26)));
+            int length = 4 + random.nextInt(13);
+            for (int i = 1; i < length; i++) {
+                name.append((char) ('a' + random.nextInt(26)));
+            }
+            if (seen.add(name.toString())) {
+                names[count++] = name.toString();
+            }
+        }
+        return names;
+    }
+}
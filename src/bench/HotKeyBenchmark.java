@@ -0,0 +1,109 @@
+/**
+ * Benchmark of the lookup cache of BinarySearchTree on a skewed workload.
+ * <p>
+ * Lookups follow a Zipfian distribution over the synthetic country names: the k-th most popular name
+ * is requested with probability proportional to 1 / k^skew, and popularity is shuffled so that hot
+ * names are spread over the whole tree. The benchmark times the same lookup sequence without a cache
+ * and with caches of several sizes, and reports the average find latency and the cache hit rate.
+ * <p>
+ * Usage: java bench.HotKeyBenchmark [size] [lookups] [skew]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.Country;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares find latency with and without the hot-key lookup cache under Zipfian lookups.
+ */
+public class HotKeyBenchmark {
+    private static final int[] CACHE_SLOTS = {0, 16, 64, 256, 1024}; // Cache sizes to compare; 0 disables it.
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of keys (default 100000), number of timed lookups (default 1000000)
+     *             and Zipf exponent (default 1.0).
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        double skew = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        List<Country> countries = BenchmarkSuite.syntheticCountries(size, "random");
+        BinarySearchTree tree = new BinarySearchTree(true);
+        String[] byPopularity = new String[size];
+        for (int i = 0; i < size; i++) {
+            tree.insert(countries.get(i));
+            byPopularity[i] = countries.get(i).getCountryName();
+        }
+        Collections.shuffle(Arrays.asList(byPopularity), new Random(7));
+        String[] workload = zipfian(byPopularity, lookups, skew, new Random(42));
+
+        System.out.printf("%-12s%16s%12s%n", "Cache", "ns/find", "hit rate");
+        System.out.println("----------------------------------------");
+        for (int slots : CACHE_SLOTS) {
+            if (slots == 0) {
+                tree.disableLookupCache();
+            } else {
+                tree.enableLookupCache(slots);
+            }
+            timeFinds(tree, workload); // Warm-up, also fills the cache.
+            long hits = tree.getCacheHits();
+            long misses = tree.getCacheMisses();
+            double nanos = timeFinds(tree, workload);
+            long measured = tree.getCacheHits() - hits + tree.getCacheMisses() - misses;
+            double hitRate = measured == 0 ? 0 : (double) (tree.getCacheHits() - hits) / measured;
+            System.out.printf("%-12s%16.1f%11.1f%%%n", slots == 0 ? "none" : String.valueOf(slots), nanos, 100 * hitRate);
+        }
+    }
+
+    /**
+     * Draw a sequence of keys from a Zipfian distribution by inverting its cumulative distribution.
+     *
+     * @param byPopularity The keys, most popular first.
+     * @param count        The number of keys to draw.
+     * @param skew         The Zipf exponent; 0 is uniform, larger values are more skewed.
+     * @param random       The source of randomness.
+     * @return The drawn keys.
+     */
+    static String[] zipfian(String[] byPopularity, int count, double skew, Random random) {
+        double[] cumulative = new double[byPopularity.length];
+        double total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = total;
+        }
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            int position = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            keys[i] = byPopularity[Math.min(position < 0 ? -position - 1 : position, byPopularity.length - 1)];
+        }
+        return keys;
+    }
+
+    /**
+     * Times one find call per key.
+     *
+     * @param tree The tree to query.
+     * @param keys The keys to look up.
+     * @return The average time per lookup in nanoseconds.
+     */
+    private static double timeFinds(BinarySearchTree tree, String[] keys) {
+        double sink = 0;
+        long start = System.nanoTime();
+        for (String key : keys) {
+            sink += tree.find(key);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print(""); // Keep the lookups from being optimized away.
+        }
+        return (double) elapsed / keys.length;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Multi-threaded benchmark of write throughput on a sharded tree.
+ * <p>
+ * For 1, 2, 4, ... writer threads (up to the number of processors, or a given maximum) every thread
+ * keeps inserting and deleting random names of a fixed key space, half of each, for a fixed time. The
+ * same workload runs on a BinarySearchTree guarded by a single lock, on a ShardedBinarySearchTree with its
+ * initial letter boundaries, and on the same sharded tree after rebalance(). All names start with
+ * "Country", so before rebalancing they all land in one shard, which shows what skew costs.
+ * <p>
+ * Usage: java bench.ShardedWriteBenchmark [size] [millisPerRun] [shards] [maxThreads]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.ShardedBinarySearchTree;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Compares write throughput of a globally locked tree with a sharded tree, before and after rebalancing.
+ */
+public class ShardedWriteBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of keys (default 100000), duration of each run in ms (default 1000),
+     *             number of shards (default 16) and largest number of writer threads (default: processors).
+     * @throws InterruptedException If the benchmark thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int shards = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        String[] keys = new String[2 * size]; // Half of the key space is present at any time.
+        BinarySearchTree locked = new BinarySearchTree(true);
+        ShardedBinarySearchTree skewed = new ShardedBinarySearchTree(shards);
+        ShardedBinarySearchTree rebalanced = new ShardedBinarySearchTree(shards);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = String.format("Country %08d", (i * 7919L) % keys.length);
+            if (i % 2 == 0) {
+                locked.insert(keys[i], i);
+                skewed.insert(keys[i], i);
+                rebalanced.insert(keys[i], i);
+            }
+        }
+        rebalanced.rebalance();
+        Object lock = new Object();
+
+        System.out.printf("%-10s%20s%20s%20s%n", "Writers", "global-lock ops/s", "skewed ops/s", "rebalanced ops/s");
+        System.out.println("----------------------------------------------------------------------");
+        for (int writers = 1; writers <= maxThreads; writers *= 2) {
+            double globalLock = run(writers, millis, keys, name -> {
+                synchronized (lock) {
+                    if (ThreadLocalRandom.current().nextBoolean()) {
+                        locked.insert(name, 1);
+                    } else {
+                        locked.delete(name);
+                    }
+                }
+            });
+            double skewedRate = run(writers, millis, keys, name -> {
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    skewed.insert(name, 1);
+                } else {
+                    skewed.delete(name);
+                }
+            });
+            double rebalancedRate = run(writers, millis, keys, name -> {
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    rebalanced.insert(name, 1);
+                } else {
+                    rebalanced.delete(name);
+                }
+            });
+            System.out.printf("%-10d%20.0f%20.0f%20.0f%n", writers, globalLock, skewedRate, rebalancedRate);
+        }
+    }
+
+    /**
+     * Runs writer threads that apply an update to random keys.
+     *
+     * @param writers The number of writer threads.
+     * @param millis  The duration of the run in milliseconds.
+     * @param keys    The key space.
+     * @param write   The update under test, applied to one key.
+     * @return The total number of updates per second across all writers.
+     * @throws InterruptedException If the benchmark thread is interrupted.
+     */
+    private static double run(int writers, long millis, String[] keys, Consumer<String> write)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (running.get()) {
+                    write.accept(keys[random.nextInt(keys.length)]);
+                    count++;
+                }
+                operations.add(count);
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(millis);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return operations.sum() * 1000.0 / millis;
+    }
+}
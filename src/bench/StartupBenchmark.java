@@ -0,0 +1,88 @@
+/**
+ * Benchmark comparing tree start-up from the CSV file with start-up from a binary snapshot.
+ * <p>
+ * For each size it writes a synthetic CSV file in random name order, saves a snapshot of the loaded tree,
+ * and then times repeated loads from both files. The files stay in the OS page cache between runs, so the
+ * numbers isolate parsing and tree construction from disk latency.
+ * <p>
+ * Usage: java bench.StartupBenchmark [size,size,...] [iterations]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.CountryCsvLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares loading from CSV with loading from a snapshot.
+ */
+public class StartupBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional comma-separated sizes (default 128,100000,1000000) and iterations (default 5).
+     * @throws IOException If a temporary file cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        String[] sizes = (args.length > 0 ? args[0] : "128,100000,1000000").split(",");
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.printf("%-10s%16s%16s%10s%n", "Size", "csv ms", "snapshot ms", "speedup");
+        System.out.println("----------------------------------------------------");
+        for (String value : sizes) {
+            int size = Integer.parseInt(value);
+            Path csv = Files.createTempFile("countries", ".csv");
+            Path snapshot = Files.createTempFile("countries", ".snapshot");
+            try {
+                BenchmarkSuite.writeCsv(csv, BenchmarkSuite.syntheticCountries(size, "random"));
+                CountryCsvLoader.load(csv, true).saveSnapshot(snapshot);
+
+                double csvMillis = time(iterations, () -> CountryCsvLoader.load(csv, true));
+                double snapshotMillis = time(iterations, () -> BinarySearchTree.loadSnapshot(snapshot, true));
+                System.out.printf("%-10d%16.2f%16.2f%9.1fx%n", size, csvMillis, snapshotMillis, csvMillis / snapshotMillis);
+            } finally {
+                Files.deleteIfExists(csv);
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    /**
+     * A loader under test.
+     */
+    @FunctionalInterface
+    private interface Loader {
+        /**
+         * Loads a tree.
+         *
+         * @return The loaded tree.
+         * @throws IOException If the file cannot be read.
+         */
+        BinarySearchTree load() throws IOException;
+    }
+
+    /**
+     * Times a loader after one warm-up run.
+     *
+     * @param iterations The number of timed runs.
+     * @param loader     The loader under test.
+     * @return The average time per load in milliseconds.
+     * @throws IOException If the loader fails.
+     */
+    private static double time(int iterations, Loader loader) throws IOException {
+        loader.load();
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += loader.load().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print(""); // Keep the loads from being optimized away.
+        }
+        return elapsed / 1e6 / iterations;
+    }
+}
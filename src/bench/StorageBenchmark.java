@@ -0,0 +1,94 @@
+/**
+ * Benchmark comparing the object-graph BinarySearchTree with the array-backed ArrayBinarySearchTree.
+ * <p>
+ * For each engine it builds a tree of synthetic country names, reports the retained heap per entry
+ * (measured as the heap growth across the build, after garbage collection, excluding the key Strings
+ * both engines are given) and the average latency of a find call.
+ * <p>
+ * Usage: java bench.StorageBenchmark [size] [lookups]
+ */
+package bench;
+
+import bst.ArrayBinarySearchTree;
+import bst.BinarySearchTree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares bytes per entry and lookup latency of the two storage engines.
+ */
+public class StorageBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of keys (default 1000000) and number of timed lookups (default 2000000).
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "Country " + i;
+        }
+        Collections.shuffle(Arrays.asList(keys), new Random(42));
+
+        System.out.printf("%-10s%16s%16s%n", "Engine", "bytes/entry", "ns/find");
+        System.out.println("------------------------------------------");
+
+        long before = usedHeap();
+        BinarySearchTree objects = new BinarySearchTree(true);
+        for (int i = 0; i < size; i++) {
+            objects.insert(keys[i], i);
+        }
+        long objectBytes = usedHeap() - before;
+        System.out.printf("%-10s%16.1f%16.1f%n", "objects", (double) objectBytes / size,
+                timeFinds(objects::find, keys, lookups));
+        objects = null;
+
+        before = usedHeap();
+        ArrayBinarySearchTree arrays = new ArrayBinarySearchTree();
+        for (int i = 0; i < size; i++) {
+            arrays.insert(keys[i], i);
+        }
+        long arrayBytes = usedHeap() - before;
+        System.out.printf("%-10s%16.1f%16.1f%n", "arrays", (double) arrayBytes / size,
+                timeFinds(arrays::find, keys, lookups));
+    }
+
+    // Helper method to measure the heap in use after encouraging a full collection.
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Times repeated lookups over the given keys after a warm-up pass.
+     *
+     * @param find    The lookup under test.
+     * @param keys    The keys to look up, cycled through.
+     * @param lookups The number of timed lookups.
+     * @return The average time per lookup in nanoseconds.
+     */
+    private static double timeFinds(ToDoubleFunction<String> find, String[] keys, int lookups) {
+        double sink = 0;
+        for (int i = 0; i < lookups; i++) {
+            sink += find.applyAsDouble(keys[(i * 7) % keys.length]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sink += find.applyAsDouble(keys[(i * 13) % keys.length]);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print(""); // Keep the lookups from being optimized away.
+        }
+        return (double) elapsed / lookups;
+    }
+}
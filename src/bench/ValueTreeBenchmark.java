@@ -0,0 +1,197 @@
+/**
+ * Benchmark comparing the primitive-valued trees with the country tree and a boxed TreeMap.
+ * <p>
+ * For the same shuffled synthetic names it times building each structure by single inserts and then
+ * looking every name up again, and reports the average latency per operation. The country tree and the
+ * value trees share their search, insert and delete code, so their numbers should stay close; the
+ * TreeMap line shows the cost of boxing the values.
+ * <p>
+ * Usage: java bench.ValueTreeBenchmark [size] [rounds]
+ */
+package bench;
+
+import bst.BinarySearchTree;
+import bst.DoubleValueTree;
+import bst.IntValueTree;
+import bst.LongValueTree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compares insert and lookup latency of BinarySearchTree, the value trees and TreeMap.
+ */
+public class ValueTreeBenchmark {
+    private static double sink; // Consumes lookup results so they are not optimized away.
+
+    /**
+     * A structure under test: builds itself from the keys and looks all of them up.
+     */
+    private interface Subject {
+        /**
+         * Insert every key, with its position as value.
+         *
+         * @param keys The keys to insert.
+         */
+        void build(String[] keys);
+
+        /**
+         * Look up every key.
+         *
+         * @param keys The keys to look up.
+         * @return The sum of the values found.
+         */
+        double lookup(String[] keys);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of keys (default 100000) and number of measured rounds (default 5).
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = String.format("Country %09d", i);
+        }
+        Collections.shuffle(Arrays.asList(keys), new Random(42));
+
+        System.out.printf("%-20s%16s%16s%n", "Structure", "ns/insert", "ns/find");
+        System.out.println("----------------------------------------------------");
+        run("BinarySearchTree", keys, rounds, new Subject() {
+            private BinarySearchTree tree;
+
+            @Override
+            public void build(String[] keys) {
+                tree = new BinarySearchTree(true);
+                for (int i = 0; i < keys.length; i++) {
+                    tree.insert(keys[i], i);
+                }
+            }
+
+            @Override
+            public double lookup(String[] keys) {
+                double sum = 0;
+                for (String key : keys) {
+                    sum += tree.find(key);
+                }
+                return sum;
+            }
+        });
+        run("DoubleValueTree", keys, rounds, new Subject() {
+            private DoubleValueTree<String> tree;
+
+            @Override
+            public void build(String[] keys) {
+                tree = new DoubleValueTree<>(Comparator.naturalOrder());
+                for (int i = 0; i < keys.length; i++) {
+                    tree.put(keys[i], i);
+                }
+            }
+
+            @Override
+            public double lookup(String[] keys) {
+                double sum = 0;
+                for (String key : keys) {
+                    sum += tree.get(key, -1);
+                }
+                return sum;
+            }
+        });
+        run("LongValueTree", keys, rounds, new Subject() {
+            private LongValueTree<String> tree;
+
+            @Override
+            public void build(String[] keys) {
+                tree = new LongValueTree<>(Comparator.naturalOrder());
+                for (int i = 0; i < keys.length; i++) {
+                    tree.put(keys[i], i);
+                }
+            }
+
+            @Override
+            public double lookup(String[] keys) {
+                long sum = 0;
+                for (String key : keys) {
+                    sum += tree.get(key, -1);
+                }
+                return sum;
+            }
+        });
+        run("IntValueTree", keys, rounds, new Subject() {
+            private IntValueTree<String> tree;
+
+            @Override
+            public void build(String[] keys) {
+                tree = new IntValueTree<>(Comparator.naturalOrder());
+                for (int i = 0; i < keys.length; i++) {
+                    tree.put(keys[i], i);
+                }
+            }
+
+            @Override
+            public double lookup(String[] keys) {
+                long sum = 0;
+                for (String key : keys) {
+                    sum += tree.get(key, -1);
+                }
+                return sum;
+            }
+        });
+        run("TreeMap<Double>", keys, rounds, new Subject() {
+            private TreeMap<String, Double> map;
+
+            @Override
+            public void build(String[] keys) {
+                map = new TreeMap<>();
+                for (int i = 0; i < keys.length; i++) {
+                    map.put(keys[i], (double) i);
+                }
+            }
+
+            @Override
+            public double lookup(String[] keys) {
+                double sum = 0;
+                for (String key : keys) {
+                    sum += map.getOrDefault(key, -1.0);
+                }
+                return sum;
+            }
+        });
+    }
+
+    /**
+     * Times a subject over one warm-up and the given number of measured rounds and prints one line.
+     *
+     * @param name    The name printed for the subject.
+     * @param keys    The keys to insert and look up.
+     * @param rounds  The number of measured rounds.
+     * @param subject The structure under test.
+     */
+    private static void run(String name, String[] keys, int rounds, Subject subject) {
+        subject.build(keys);
+        sink += subject.lookup(keys);
+        long insertNanos = 0;
+        long findNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            subject.build(keys);
+            long built = System.nanoTime();
+            sink += subject.lookup(keys);
+            long end = System.nanoTime();
+            insertNanos += built - start;
+            findNanos += end - built;
+        }
+        double operations = (double) rounds * keys.length;
+        System.out.printf("%-20s%16.1f%16.1f%n", name, insertNanos / operations, findNanos / operations);
+        if (sink == 42) {
+            System.out.print(""); // Keep the lookups from being optimized away.
+        }
+    }
+}
@@ -0,0 +1,714 @@
+package bst;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * The ArrayBinarySearchTree class is an alternative storage engine for country names and happiness
+ * indices that keeps the whole tree in a handful of primitive arrays instead of one object per node.
+ * <p>
+ * A node is an int slot. Child and parent links are slot numbers, heights and happiness indices live in
+ * parallel int and double arrays, and the characters of all names are packed back to back into a single
+ * char array addressed by offset and length. Searching compares the probe String against that array
+ * directly, so lookups allocate nothing and touch only a few arrays. Slots freed by delete are reused,
+ * and the name array is compacted once more than half of it belongs to deleted names.
+ * <p>
+ * The tree is always AVL-balanced. It offers the insert, find and delete operations, the traversals,
+ * printPath and the top and bottom countries of BinarySearchTree. There is no happiness index, so the
+ * top and bottom countries are selected by one scan over the slots with a bounded heap, in
+ * O(n log count); range queries, batches and views stay with the object tree.
+ */
+
+public class ArrayBinarySearchTree {
+    private static final int NIL = -1; // Slot number standing for "no node".
+    private static final int INITIAL_CAPACITY = 16; // Initial number of node slots.
+
+    private int root = NIL; // Slot of the root node.
+    private int count; // Number of countries stored.
+    private int free = NIL; // Head of the list of free slots, chained through left.
+    private int slotsUsed; // Number of slots ever handed out.
+
+    private int[] left; // Left child slot per node.
+    private int[] right; // Right child slot per node.
+    private int[] parent; // Parent slot per node.
+    private int[] height; // Subtree height per node, 0 for a free slot.
+    private double[] happiness; // Happiness index per node.
+    private int[] keyOffset; // Start of the node's name in keys.
+    private int[] keyLength; // Length of the node's name.
+
+    private char[] keys; // Characters of all names, back to back.
+    private int keysUsed; // Number of chars of keys in use.
+    private int keysGarbage; // Number of chars of keys belonging to deleted names.
+
+    /**
+     * Constructor to create an empty array-backed tree.
+     */
+    
+    public ArrayBinarySearchTree() {
+        left = new int[INITIAL_CAPACITY];
+        right = new int[INITIAL_CAPACITY];
+        parent = new int[INITIAL_CAPACITY];
+        height = new int[INITIAL_CAPACITY];
+        happiness = new double[INITIAL_CAPACITY];
+        keyOffset = new int[INITIAL_CAPACITY];
+        keyLength = new int[INITIAL_CAPACITY];
+        keys = new char[INITIAL_CAPACITY * 16];
+    }
+
+    /**
+     * Get the number of countries stored in the tree.
+     *
+     * @return The number of countries.
+     */
+    
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Get the height of the tree, i.e. the number of nodes on the longest root-to-leaf path.
+     *
+     * @return The height of the tree, 0 if it is empty.
+     */
+    
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    /**
+     * Insert a country. Inserting a name that is already present has no effect.
+     *
+     * @param name      The name of the country.
+     * @param happiness The happiness index of the country.
+     */
+    
+    public void insert(String name, double happiness) {
+        int parentSlot = NIL;
+        int current = root;
+        int compareResult = 0;
+        while (current != NIL) {
+            compareResult = compareKey(name, current);
+
+            if (compareResult == 0) {
+                return; // Duplicate name, nothing changed.
+            }
+            parentSlot = current;
+            current = compareResult < 0 ? left[current] : right[current];
+        }
+
+        int node = allocate(name, happiness);
+        parent[node] = parentSlot;
+        if (parentSlot == NIL) {
+            root = node;
+        } else if (compareResult < 0) {
+            left[parentSlot] = node;
+        } else {
+            right[parentSlot] = node;
+        }
+        count++;
+        retrace(parentSlot);
+    }
+
+    /**
+     * Find the happiness index of a country based on its name.
+     *
+     * @param name The name of the country to search for.
+     * @return The happiness index of the country, or -1 if the country is not found.
+     */
+    
+    public double find(String name) {
+        int node = findSlot(name);
+        return node == NIL ? -1 : happiness[node]; // -1 means country not found.
+    }
+
+    /**
+     * Delete a country based on its name. A node with two children takes over the name and
+     * happiness of its inorder successor, which only copies a few ints, and the successor is freed.
+     *
+     * @param name The name of the country to delete.
+     */
+    
+    public void delete(String name) {
+        int node = findSlot(name);
+        if (node == NIL) {
+            return;
+        }
+        keysGarbage += keyLength[node];
+
+        if (left[node] != NIL && right[node] != NIL) {
+            int successor = right[node];
+            while (left[successor] != NIL) {
+                successor = left[successor];
+            }
+            keyOffset[node] = keyOffset[successor];
+            keyLength[node] = keyLength[successor];
+            happiness[node] = happiness[successor];
+            node = successor;
+        }
+
+        int child = left[node] != NIL ? left[node] : right[node];
+        int parentSlot = parent[node];
+        replaceChild(parentSlot, node, child);
+        release(node);
+        count--;
+        retrace(parentSlot);
+
+        if (keysGarbage > INITIAL_CAPACITY * 16 && keysGarbage * 2 > keysUsed) {
+            compactKeys();
+        }
+    }
+
+    /**
+     * Print the path between a specific country and the root of the tree, starting at the country.
+     * The country is located by a single descent and the path is read off the parent slots.
+     *
+     * @param name The name of the country to find and print the path for.
+     */
+    
+    public void printPath(String name) {
+        int node = findSlot(name);
+        if (node == NIL) {
+            System.out.println(name + " is not found.");
+            return;
+        }
+
+        StringBuilder path = new StringBuilder(name);
+        for (int current = parent[node]; current != NIL; current = parent[current]) {
+            path.append(" -> ").append(keys, keyOffset[current], keyLength[current]);
+        }
+        System.out.print(path);
+    }
+
+    /**
+     * Print the tree nodes in inorder traversal (LNR).
+     */
+    
+    public void printInorder() {
+        print(this::writeInorder);
+    }
+
+    /**
+     * Print the tree nodes in preorder traversal (NLR).
+     */
+    
+    public void printPreorder() {
+        print(this::writePreorder);
+    }
+
+    /**
+     * Print the tree nodes in postorder traversal (LRN).
+     */
+    
+    public void printPostorder() {
+        print(this::writePostorder);
+    }
+
+    /**
+     * Write the tree as a Name/Happiness table in inorder traversal, walking the slots without recursion.
+     *
+     * @param out The destination of the table.
+     * @throws IOException If the destination fails.
+     */
+    
+    public void writeInorder(Appendable out) throws IOException {
+        CountryTable table = new CountryTable(out);
+        table.writeHeader();
+        for (int current = root == NIL ? NIL : minSlot(root); current != NIL; current = successorSlot(current)) {
+            table.writeRow(nameOf(current), happiness[current]);
+        }
+    }
+
+    /**
+     * Write the tree as a Name/Happiness table in preorder traversal.
+     *
+     * @param out The destination of the table.
+     * @throws IOException If the destination fails.
+     */
+    
+    public void writePreorder(Appendable out) throws IOException {
+        CountryTable table = new CountryTable(out);
+        table.writeHeader();
+        for (int current = root; current != NIL; current = preorderNext(current)) {
+            table.writeRow(nameOf(current), happiness[current]);
+        }
+    }
+
+    /**
+     * Write the tree as a Name/Happiness table in postorder traversal.
+     *
+     * @param out The destination of the table.
+     * @throws IOException If the destination fails.
+     */
+    
+    public void writePostorder(Appendable out) throws IOException {
+        CountryTable table = new CountryTable(out);
+        table.writeHeader();
+        for (int current = postorderFirst(root); current != NIL; current = postorderNext(current)) {
+            table.writeRow(nameOf(current), happiness[current]);
+        }
+    }
+
+    /**
+     * Get a list of the top countries based on their happiness indices.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return An array of country names representing the top countries by happiness in descending order.
+     */
+    
+    public String[] getTopCountries(int count) {
+        return namesOf(select(count, true));
+    }
+
+    /**
+     * Get the top countries based on their happiness indices, together with their happiness.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return The top countries by happiness in descending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getTopCountryEntries(int count) {
+        return countriesOf(select(count, true));
+    }
+
+    /**
+     * Get a list of the bottom countries based on their happiness indices.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return An array of country names representing the bottom countries by happiness in ascending order.
+     */
+    
+    public String[] getBottomCountries(int count) {
+        return namesOf(select(count, false));
+    }
+
+    /**
+     * Get the bottom countries based on their happiness indices, together with their happiness.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return The bottom countries by happiness in ascending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getBottomCountryEntries(int count) {
+        return countriesOf(select(count, false));
+    }
+
+    /**
+     * Estimate the memory held by the arrays of this tree, excluding array headers.
+     *
+     * @return The number of bytes allocated for node slots and name characters.
+     */
+    
+    public long getAllocatedBytes() {
+        return (long) left.length * (6 * Integer.BYTES + Double.BYTES) + (long) keys.length * Character.BYTES;
+    }
+
+    /**
+     * A helper method to find the slot holding a country by walking down from the root.
+     *
+     * @param name The name of the country to find.
+     * @return The slot of the country, or NIL if the country is not found.
+     */
+    
+    private int findSlot(String name) {
+        int current = root;
+        while (current != NIL) {
+            int compareResult = compareKey(name, current);
+
+            if (compareResult == 0) {
+                return current;
+            }
+            current = compareResult < 0 ? left[current] : right[current];
+        }
+        return NIL;
+    }
+
+    /**
+     * A helper method to compare a name with the name stored at a slot, with the same result sign
+     * as String.compareTo but without materializing the stored name.
+     *
+     * @param name The name to compare.
+     * @param node The slot to compare against.
+     * @return A negative, zero or positive number as the name orders before, at or after the slot's name.
+     */
+    
+    private int compareKey(String name, int node) {
+        int offset = keyOffset[node];
+        int length = keyLength[node];
+        int shared = Math.min(name.length(), length);
+        for (int i = 0; i < shared; i++) {
+            int difference = name.charAt(i) - keys[offset + i];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return name.length() - length;
+    }
+
+    /**
+     * A helper method to select the slots of the happiest or least happy countries. One scan over the
+     * slots keeps the best count of them in a heap whose root is the worst kept slot, and the heap is
+     * then sorted in place, best first. Ties are broken by name as in the happiness index of
+     * BinarySearchTree.
+     *
+     * @param count The number of countries to select.
+     * @param top   true for the happiest countries, false for the least happy.
+     * @return The selected slots, best first.
+     */
+    
+    private int[] select(int count, boolean top) {
+        int sign = top ? -1 : 1; // Orders better slots first.
+        int[] heap = new int[Math.max(0, Math.min(count, this.count))];
+        if (heap.length == 0) {
+            return heap;
+        }
+        int size = 0;
+        for (int node = 0; node < slotsUsed; node++) {
+            if (height[node] == 0) {
+                continue; // Free slot.
+            }
+            if (size < heap.length) {
+                heap[size] = node;
+                siftUp(heap, size++, sign);
+            } else if (sign * compareByHappiness(node, heap[0]) < 0) {
+                heap[0] = node;
+                siftDown(heap, 0, size, sign);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end, sign);
+        }
+        return heap;
+    }
+
+    // Helper method to move a heap entry up until its parent orders after it.
+    private void siftUp(int[] heap, int index, int sign) {
+        while (index > 0) {
+            int parentIndex = (index - 1) / 2;
+            if (sign * compareByHappiness(heap[index], heap[parentIndex]) <= 0) {
+                return;
+            }
+            int swap = heap[index];
+            heap[index] = heap[parentIndex];
+            heap[parentIndex] = swap;
+            index = parentIndex;
+        }
+    }
+
+    // Helper method to move a heap entry down until no child of it orders after it.
+    private void siftDown(int[] heap, int index, int size, int sign) {
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && sign * compareByHappiness(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (sign * compareByHappiness(heap[child], heap[index]) <= 0) {
+                return;
+            }
+            int swap = heap[index];
+            heap[index] = heap[child];
+            heap[child] = swap;
+            index = child;
+        }
+    }
+
+    // Helper method to order two slots by happiness index and then by name.
+    private int compareByHappiness(int node, int other) {
+        int compareResult = Double.compare(happiness[node], happiness[other]);
+        if (compareResult != 0) {
+            return compareResult;
+        }
+        int offset = keyOffset[node];
+        int otherOffset = keyOffset[other];
+        int shared = Math.min(keyLength[node], keyLength[other]);
+        for (int i = 0; i < shared; i++) {
+            int difference = keys[offset + i] - keys[otherOffset + i];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return keyLength[node] - keyLength[other];
+    }
+
+    // Helper method to materialize the name stored at a slot.
+    private String nameOf(int node) {
+        return new String(keys, keyOffset[node], keyLength[node]);
+    }
+
+    // Helper method to get the names stored at a list of slots.
+    private String[] namesOf(int[] nodes) {
+        String[] names = new String[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            names[i] = nameOf(nodes[i]);
+        }
+        return names;
+    }
+
+    // Helper method to get the countries stored at a list of slots.
+    private Country[] countriesOf(int[] nodes) {
+        Country[] countries = new Country[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            countries[i] = new Country(nameOf(nodes[i]), happiness[nodes[i]]);
+        }
+        return countries;
+    }
+
+    /**
+     * A helper method to print a table to standard output through one buffered writer,
+     * flushed once at the end instead of once per row.
+     *
+     * @param writer The table writer, one of the writeXxx methods.
+     */
+    
+    private void print(TableWriter writer) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        try {
+            writer.write(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The TableWriter interface is a traversal that writes a table to a destination.
+     */
+    
+    @FunctionalInterface
+    private interface TableWriter {
+        void write(Appendable out) throws IOException;
+    }
+
+    // Helper method to get the leftmost slot of a non-empty subtree.
+    private int minSlot(int node) {
+        int current = node;
+        while (left[current] != NIL) {
+            current = left[current];
+        }
+        return current;
+    }
+
+    // Helper method to get the slot after a slot in inorder, following parent slots.
+    private int successorSlot(int node) {
+        if (right[node] != NIL) {
+            return minSlot(right[node]);
+        }
+        int current = node;
+        int parentSlot = parent[current];
+        while (parentSlot != NIL && right[parentSlot] == current) {
+            current = parentSlot;
+            parentSlot = parent[parentSlot];
+        }
+        return parentSlot;
+    }
+
+    // Helper method to get the slot after a slot in preorder, following parent slots.
+    private int preorderNext(int node) {
+        if (left[node] != NIL) {
+            return left[node];
+        }
+        if (right[node] != NIL) {
+            return right[node];
+        }
+        int current = node;
+        int parentSlot = parent[current];
+        while (parentSlot != NIL) {
+            if (left[parentSlot] == current && right[parentSlot] != NIL) {
+                return right[parentSlot];
+            }
+            current = parentSlot;
+            parentSlot = parent[parentSlot];
+        }
+        return NIL;
+    }
+
+    // Helper method to get the first slot of a subtree in postorder: its leftmost-deepest leaf.
+    private int postorderFirst(int node) {
+        int current = node;
+        while (current != NIL) {
+            if (left[current] != NIL) {
+                current = left[current];
+            } else if (right[current] != NIL) {
+                current = right[current];
+            } else {
+                return current;
+            }
+        }
+        return NIL;
+    }
+
+    // Helper method to get the slot after a slot in postorder, following parent slots.
+    private int postorderNext(int node) {
+        int parentSlot = parent[node];
+        if (parentSlot != NIL && left[parentSlot] == node && right[parentSlot] != NIL) {
+            return postorderFirst(right[parentSlot]);
+        }
+        return parentSlot;
+    }
+
+    // Helper method to take a free slot (or a new one) and store a country in it.
+    private int allocate(String name, double value) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (slotsUsed == left.length) {
+                growSlots();
+            }
+            node = slotsUsed++;
+        }
+
+        int length = name.length();
+        if (keysUsed + length > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(keys.length * 2, keysUsed + length));
+        }
+        name.getChars(0, length, keys, keysUsed);
+        keyOffset[node] = keysUsed;
+        keyLength[node] = length;
+        keysUsed += length;
+
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 1;
+        happiness[node] = value;
+        return node;
+    }
+
+    // Helper method to put a slot on the free list.
+    private void release(int node) {
+        height[node] = 0;
+        right[node] = NIL;
+        parent[node] = NIL;
+        left[node] = free;
+        free = node;
+    }
+
+    // Helper method to double the capacity of all per-node arrays.
+    private void growSlots() {
+        int capacity = left.length * 2;
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        height = Arrays.copyOf(height, capacity);
+        happiness = Arrays.copyOf(happiness, capacity);
+        keyOffset = Arrays.copyOf(keyOffset, capacity);
+        keyLength = Arrays.copyOf(keyLength, capacity);
+    }
+
+    // Helper method to copy the names of live slots into a fresh array, dropping deleted names.
+    private void compactKeys() {
+        char[] compacted = new char[Math.max(INITIAL_CAPACITY * 16, (keysUsed - keysGarbage) * 2)];
+        int used = 0;
+        for (int node = 0; node < slotsUsed; node++) {
+            if (height[node] != 0) {
+                System.arraycopy(keys, keyOffset[node], compacted, used, keyLength[node]);
+                keyOffset[node] = used;
+                used += keyLength[node];
+            }
+        }
+        keys = compacted;
+        keysUsed = used;
+        keysGarbage = 0;
+    }
+
+    // Helper method to get the height of a possibly empty subtree.
+    private int heightOf(int node) {
+        return node == NIL ? 0 : height[node];
+    }
+
+    // Helper method to recompute the height of a slot from its children.
+    private void updateHeight(int node) {
+        height[node] = 1 + Math.max(heightOf(left[node]), heightOf(right[node]));
+    }
+
+    // Helper method to make a parent point to a new child in place of an old one.
+    private void replaceChild(int parentSlot, int oldChild, int newChild) {
+        if (parentSlot == NIL) {
+            root = newChild;
+        } else if (left[parentSlot] == oldChild) {
+            left[parentSlot] = newChild;
+        } else {
+            right[parentSlot] = newChild;
+        }
+        if (newChild != NIL) {
+            parent[newChild] = parentSlot;
+        }
+    }
+
+    /**
+     * A helper method to walk up from a slot whose subtree changed, refreshing heights and
+     * restoring the AVL invariant, until a subtree keeps its previous height.
+     *
+     * @param node The lowest slot whose subtree changed.
+     */
+    
+    private void retrace(int node) {
+        while (node != NIL) {
+            int oldHeight = height[node];
+            int parentSlot = parent[node];
+            int subtree = rebalance(node);
+            if (height[subtree] == oldHeight) {
+                return;
+            }
+            node = parentSlot;
+        }
+    }
+
+    // Helper method to restore the AVL invariant at a slot, returning the new subtree root.
+    private int rebalance(int node) {
+        int balance = heightOf(left[node]) - heightOf(right[node]);
+        if (balance > 1) {
+            if (heightOf(left[left[node]]) < heightOf(right[left[node]])) {
+                rotateLeft(left[node]); // Left-right case
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (heightOf(right[right[node]]) < heightOf(left[right[node]])) {
+                rotateRight(right[node]); // Right-left case
+            }
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    // Helper method to rotate the subtree at a slot to the right, returning the new subtree root.
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        int inner = right[pivot];
+        left[node] = inner;
+        if (inner != NIL) {
+            parent[inner] = node;
+        }
+        replaceChild(parent[node], node, pivot);
+        right[pivot] = node;
+        parent[node] = pivot;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    // Helper method to rotate the subtree at a slot to the left, returning the new subtree root.
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        int inner = left[pivot];
+        right[node] = inner;
+        if (inner != NIL) {
+            parent[inner] = node;
+        }
+        replaceChild(parent[node], node, pivot);
+        left[pivot] = node;
+        parent[node] = pivot;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+}
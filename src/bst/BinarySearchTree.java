@@ -9,7 +9,29 @@
  */
 package bst;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.DoubleSummaryStatistics;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 /**
  * The BinarySearchTree class represents a binary search tree (BST) used to store country info.
@@ -17,350 +39,1766 @@ import java.util.Arrays;
  * printing the tree in different traversal sequences.
  */
 
-public class BinarySearchTree {
-    private Node root; // The root node of the binary search tree.
+public class BinarySearchTree extends KeyedTree<String, Node> implements Iterable<Country> {
+    static final int PARALLEL_THRESHOLD = 1 << 13; // Fewest countries worth splitting across threads.
+    private static final int INSERTION_SORT_THRESHOLD = 16; // Largest range sortedOrder sorts by insertion.
+
+    private final HappinessIndex happinessIndex; // Secondary index ordered by (happiness, name).
+    private final boolean normalizedKeys; // Whether names are ordered ignoring case and accents.
+    private HotKeyCache cache; // Lookup cache for hot names, null when disabled.
+    private TreeMetrics metrics; // Operation metrics, null when disabled.
+    private final List<TopKView> views = new ArrayList<>(); // Registered top and bottom views.
 
     /**
      * Constructor to create an empty binary search tree.
      */
     
     public BinarySearchTree() {
-        root = null;
+        this(false);
     }
 
     /**
-     * Insert a new node into the binary search tree based on country name.
+     * Constructor to create an empty binary search tree, optionally self-balancing.
+     * A balanced tree keeps the AVL invariant (subtree heights of every node differ by at most one),
+     * so insert, find and delete stay O(log n) even when the countries arrive in sorted order.
      *
-     * @param name      The name of the country.
-     * @param happiness The happiness index of the country.
+     * @param balanced true to rebalance on every insert and delete, false for a plain BST.
      */
     
-    public void insert(String name, double happiness) {
-        root = insertRecursive(root, name, happiness);
+    public BinarySearchTree(boolean balanced) {
+        this(balanced, false);
     }
 
-     /**
-     * A helper method to insert a node recursively into the binary search tree.
+    /**
+     * Constructor to create an empty binary search tree, optionally self-balancing and optionally
+     * ordering names without regard to case and accents. With normalized keys "cote d'ivoire" finds
+     * "Côte d'Ivoire", and names that differ only in case or accents count as the same country.
+     * Each name is normalized once when it is inserted and each query once per call, never per node.
      *
-     * @param current   The current node being examined.
-     * @param name      The name of the country to insert.
-     * @param happiness The happiness index of the country to insert.
-     * @return The root of the updated subtree.
+     * @param balanced       true to rebalance on every insert and delete, false for a plain BST.
+     * @param normalizedKeys true to order and look up names ignoring case and accents.
      */
     
-    private Node insertRecursive(Node current, String name, double happiness) {
-        if (current == null) {
-            return new Node(name, happiness);
-        }
+    public BinarySearchTree(boolean balanced, boolean normalizedKeys) {
+        super(balanced, Comparator.naturalOrder());
+        this.happinessIndex = new HappinessIndex();
+        this.normalizedKeys = normalizedKeys;
+    }
 
-        int compareResult = name.compareTo(current.getCountryName());
+    @Override
+    String keyOf(Node node) {
+        return node.getSortKey();
+    }
 
-        if (compareResult < 0) {
-            current.setLeft(insertRecursive(current.getLeft(), name, happiness));
-        } else if (compareResult > 0) {
-            current.setRight(insertRecursive(current.getRight(), name, happiness));
+    @Override
+    void clear() {
+        super.clear();
+        if (cache != null) {
+            cache.clear();
         }
-
-        return current;
     }
-    
+
     /**
-     * Find the happiness index of a country based on its name.
+     * A helper method to find the node holding a sort key. Each step compares the packed key prefixes
+     * first and only compares the full keys when the prefixes are equal.
      *
-     * @param name The name of the country to search for.
-     * @return The happiness index of the country, or -1 if the country is not found.
+     * @param key The sort key to find.
+     * @return The node of the key, or null if the key is not found.
      */
     
-    public double find(String name) {
-        return findRecursive(root, name);
+    @Override
+    Node findNode(String key) {
+        long prefix = SortKeys.prefixOf(key);
+        Node current = root;
+        while (current != null) {
+            int compareResult = compare(key, prefix, current);
+
+            if (compareResult == 0) {
+                return current;
+            }
+            current = compareResult < 0 ? current.getLeft() : current.getRight();
+        }
+        return null;
     }
 
     /**
-     * A helper method to find the happiness index of a country based on its name recursively.
+     * A helper method to insert a node unless its sort key is already present, comparing packed key
+     * prefixes first like {@link #findNode(String)}.
      *
-     * @param current The current node being examined.
-     * @param name    The name of the country to find.
-     * @return The happiness index of the country, or -1 if the country is not found.
+     * @param node The new node.
+     * @return true if the node was inserted, false if the key was already present.
      */
     
-    private double findRecursive(Node current, String name) {
-        if (current == null) {
-            return -1; // Country not found.
+    @Override
+    boolean insertNode(Node node) {
+        String key = node.getSortKey();
+        long prefix = node.getKeyPrefix();
+        Node parent = null;
+        Node current = root;
+        int compareResult = 0;
+        while (current != null) {
+            compareResult = compare(key, prefix, current);
+
+            if (compareResult == 0) {
+                return false; // Duplicate name, nothing changed.
+            }
+            parent = current;
+            current = compareResult < 0 ? current.getLeft() : current.getRight();
         }
 
-        int compareResult = name.compareTo(current.getCountryName());
+        attach(parent, node, compareResult < 0);
+        return true;
+    }
 
-        if (compareResult == 0) {
-            return current.getHappiness();
-        } else if (compareResult < 0) {
-            return findRecursive(current.getLeft(), name);
-        } else {
-            return findRecursive(current.getRight(), name);
+    // Helper method to order a sort key with its packed prefix against the key of a node.
+    private static int compare(String key, long prefix, Node node) {
+        long nodePrefix = node.getKeyPrefix();
+        if (prefix != nodePrefix) {
+            return Long.compareUnsigned(prefix, nodePrefix);
         }
+        return key.compareTo(node.getSortKey());
+    }
+
+    /**
+     * Put a bounded cache of hot names in front of {@link #find(String)}, {@link #findCountry(String)}
+     * and {@link #printPath(String)}. The cache is direct-mapped: each name can only occupy the slot
+     * picked by its hash, so a lookup costs one hash probe instead of a walk from the root, and a new
+     * name evicts whichever name held its slot. Only found names are cached, so inserts never make an
+     * entry stale; deletes drop the entry of the deleted name. Replaces any previous cache.
+     *
+     * @param capacity The number of cache slots, rounded up to a power of two.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    
+    public void enableLookupCache(int capacity) {
+        cache = new HotKeyCache(capacity);
     }
+
+    /**
+     * Remove the lookup cache, so every lookup walks the tree again.
+     */
     
+    public void disableLookupCache() {
+        cache = null;
+    }
+
     /**
-     * Print the path from the root to a specific country in the binary search tree.
+     * Get the number of lookups answered from the lookup cache since it was enabled.
      *
-     * @param name The name of the country to find and print the path for.
+     * @return The hit count, 0 if the cache is disabled.
      */
     
-    public void printPath(String name) {
-        boolean found = printPathRecursive(root, name);
-        if (!found) {
-            System.out.println(name + " is not found.");
+    public long getCacheHits() {
+        return cache == null ? 0 : cache.hits();
+    }
+
+    /**
+     * Get the number of lookups that missed the lookup cache since it was enabled.
+     *
+     * @return The miss count, 0 if the cache is disabled.
+     */
+    
+    public long getCacheMisses() {
+        return cache == null ? 0 : cache.misses();
+    }
+
+    /**
+     * A helper method to find the node holding a country, through the lookup cache if it is enabled.
+     *
+     * @param name The name of the country to find.
+     * @return The node of the country, or null if the country is not found.
+     */
+    
+    private Node lookup(String name) {
+        String key = sortKey(name);
+        if (cache == null) {
+            return findNode(key);
         }
+        Node node = cache.get(key);
+        if (node == null) {
+            node = findNode(key);
+            if (node != null) {
+                cache.put(key, node);
+            }
+        }
+        return node;
     }
 
     /**
-     * A helper method to print the path from the root to a specific country in the binary search tree.
+     * Start recording operation metrics: call counts and latency histograms of insert, find, delete,
+     * their batch forms and the top/bottom queries. While metrics are disabled, which is the default, operations do not
+     * read the clock at all.
      *
-     * @param current The current node being examined.
-     * @param name    The name of the country to find.
-     * @return true if the country is found, false if it's not found.
+     * @return The metrics of this tree, the existing ones if metrics were already enabled.
      */
     
-    private boolean printPathRecursive(Node current, String name) {
-        if (current == null) {
-            return false;
+    public TreeMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new TreeMetrics();
         }
+        return metrics;
+    }
 
-        if (current.getCountryName().equals(name)) {
-            System.out.print(current.getCountryName());
-            return true;
+    /**
+     * Stop recording operation metrics and drop the recorded ones.
+     */
+    
+    public void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Get the operation metrics of this tree.
+     *
+     * @return The metrics, or null if metrics are disabled.
+     */
+    
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Helper method to record an operation and, if a reader asked for one, sample and publish the shape.
+    private void record(TreeMetrics metrics, TreeMetrics.Operation operation, long start) {
+        metrics.record(operation, start);
+        if (metrics.isShapeRequested()) {
+            metrics.publishShape(TreeShape.of(root));
         }
+    }
 
-        if (printPathRecursive(current.getLeft(), name) || printPathRecursive(current.getRight(), name)) {
-            System.out.print(" -> " + current.getCountryName());
-            return true;
+    /**
+     * Measure the shape of the tree: size, height, average node depth and imbalance.
+     * This walks every node, so it costs O(n). Like every other method of the tree it must be called
+     * from the thread that owns the tree. With metrics enabled, the shape is also published to them.
+     *
+     * @return The shape of the tree.
+     */
+    
+    public TreeShape shape() {
+        TreeShape shape = TreeShape.of(root);
+        TreeMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.publishShape(shape);
         }
+        return shape;
+    }
 
-        return false;
+    /**
+     * Enable metrics and publish them, with the shape of the tree, as an MXBean on the platform MBean
+     * server under the name "bst:type=BinarySearchTree,name=&lt;name&gt;". Must be called from the thread
+     * that owns the tree, which also samples the shape the bean reports; see {@link TreeMetrics}.
+     *
+     * @param name The name that identifies this tree in JMX.
+     * @return The object name the bean was registered under.
+     * @throws JMException If the name is invalid or already registered.
+     */
+    
+    public ObjectName registerMetricsMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("bst:type=BinarySearchTree,name=" + ObjectName.quote(name));
+        TreeMetricsBean bean = new TreeMetricsBean(this, enableMetrics());
+        shape(); // Publish a first shape for the bean.
+        ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(new StandardMBean(bean, TreeMetricsMXBean.class, true), objectName);
+        return objectName;
     }
+
+    /**
+     * Check whether this tree orders names ignoring case and accents.
+     *
+     * @return true if the tree uses normalized keys.
+     */
     
+    public boolean hasNormalizedKeys() {
+        return normalizedKeys;
+    }
+
+    /**
+     * A helper method to get the key a name is ordered by in this tree.
+     *
+     * @param name The country name.
+     * @return The normalized name if the tree uses normalized keys, otherwise the name itself.
+     */
     
+    String sortKey(String name) {
+        return normalizedKeys ? SortKeys.normalize(name) : name;
+    }
+
+    // Helper method to create the node holding a country, with its sort key.
+    private Node newNode(Country country) {
+        return new Node(country, sortKey(country.getCountryName()));
+    }
+
     /**
-     * Delete a node from the binary search tree based on country name.
+     * Check whether this tree rebalances itself on insert and delete.
      *
-     * @param name The name of the country to delete.
+     * @return true if the tree is self-balancing.
      */
     
-    public void delete(String name) {
-        root = deleteRecursive(root, name);
+    public boolean isBalanced() {
+        return balanced;
     }
 
     /**
-     * A helper method to delete a node from the binary search tree based on country name.
+     * Get the height of the tree, i.e. the number of nodes on the longest root-to-leaf path.
      *
-     * @param current The current node being examined.
-     * @param name    The name of the country to delete.
-     * @return The root of the updated subtree.
+     * @return The height of the tree, 0 if it is empty.
      */
     
-    private Node deleteRecursive(Node current, String name) {
-        if (current == null) {
-            return current;
-        }
+    public int getHeight() {
+        return height(root);
+    }
 
-        int compareResult = name.compareTo(current.getCountryName());
+    /**
+     * Get the number of countries stored in the tree.
+     *
+     * @return The number of countries.
+     */
+    
+    public int size() {
+        return size(root);
+    }
 
-        if (compareResult < 0) {
-            current.setLeft(deleteRecursive(current.getLeft(), name));
-        } else if (compareResult > 0) {
-            current.setRight(deleteRecursive(current.getRight(), name));
-        } else {
-            // Node with only one child or no child
-            if (current.getLeft() == null) {
-                return current.getRight();
-            } else if (current.getRight() == null) {
-                return current.getLeft();
-            }
+    /**
+     * Get the rank of a country name, i.e. how many countries come before it alphabetically.
+     * The name does not need to be in the tree. Runs in O(height) using the subtree sizes.
+     *
+     * @param name The country name to rank.
+     * @return The number of countries whose name is less than the given name.
+     */
+    
+    public int rank(String name) {
+        return countBefore(name, false);
+    }
 
-            // Node with two children, get the inorder successor
-            current.setCountryName(minValueNode(current.getRight()).getCountryName());
-            current.setRight(deleteRecursive(current.getRight(), current.getCountryName()));
+    /**
+     * Select the k-th country in alphabetical order. Runs in O(height) using the subtree sizes.
+     *
+     * @param k The zero-based position of the country.
+     * @return The name of the k-th country, or null if k is outside 0 to size() - 1.
+     */
+    
+    public String select(int k) {
+        if (k < 0 || k >= size()) {
+            return null;
         }
+        return selectNode(k).getCountryName();
+    }
 
-        return current;
+    // Helper method to find the node at a zero-based position between 0 and size() - 1.
+    private Node selectNode(int k) {
+        Node current = root;
+        while (true) {
+            int leftSize = size(current.getLeft());
+            if (k < leftSize) {
+                current = current.getLeft();
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                current = current.getRight();
+            } else {
+                return current;
+            }
+        }
     }
+
+    /**
+     * Get the depth of a country, i.e. the number of nodes a search for it visits, itself included.
+     *
+     * @param name The name of the country.
+     * @return The depth of the country, 1 for the root, or -1 if the country is not found.
+     */
     
+    public int depth(String name) {
+        String key = sortKey(name);
+        long prefix = SortKeys.prefixOf(key);
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            depth++;
+            int compareResult = compare(key, prefix, current);
+
+            if (compareResult == 0) {
+                return depth;
+            }
+            current = compareResult < 0 ? current.getLeft() : current.getRight();
+        }
+        return -1;
+    }
+
     /**
-     * A helper method to find the minimum value node in a subtree.
+     * Count the countries whose names fall between two bounds, both inclusive.
+     * Runs in O(height) using the subtree sizes.
      *
-     * @param node The root node of the subtree.
-     * @return The node with the minimum value in the subtree.
+     * @param from The lowest name to count.
+     * @param to   The highest name to count.
+     * @return The number of countries in the range, 0 if from is greater than to.
      */
     
-    private Node minValueNode(Node node) {
-        Node current = node;
-        while (current.getLeft() != null) {
-            current = current.getLeft();
+    public int countRange(String from, String to) {
+        if (sortKey(from).compareTo(sortKey(to)) > 0) {
+            return 0;
         }
-        return current;
+        return countBefore(to, true) - countBefore(from, false);
     }
 
+    /**
+     * Summarize the happiness indices of the countries whose names fall between two bounds, both
+     * inclusive: count, sum, sum of squares, minimum, maximum, mean and variance. Every node keeps
+     * these aggregates for its subtree, so the query only walks the two boundary paths and adds whole
+     * subtrees that lie inside the range, O(height) instead of a walk over the range.
+     *
+     * @param from The lowest name to include.
+     * @param to   The highest name to include.
+     * @return The summary of the range, empty if from is greater than to.
+     */
+    
+    public HappinessSummary summarizeRange(String from, String to) {
+        String fromKey = sortKey(from);
+        String toKey = sortKey(to);
+        long fromPrefix = SortKeys.prefixOf(fromKey);
+        long toPrefix = SortKeys.prefixOf(toKey);
+        HappinessSummary summary = new HappinessSummary();
+        if (fromKey.compareTo(toKey) > 0) {
+            return summary;
+        }
+
+        // Find the highest node inside the range, where the paths to both bounds split.
+        Node split = root;
+        while (split != null) {
+            if (compare(fromKey, fromPrefix, split) > 0) {
+                split = split.getRight();
+            } else if (compare(toKey, toPrefix, split) < 0) {
+                split = split.getLeft();
+            } else {
+                break;
+            }
+        }
+        if (split == null) {
+            return summary;
+        }
+        summary.addNode(split);
+
+        // Below the split, every node at or after from on the left path brings its right subtree.
+        Node current = split.getLeft();
+        while (current != null) {
+            if (compare(fromKey, fromPrefix, current) <= 0) {
+                summary.addNode(current);
+                summary.addSubtree(current.getRight());
+                current = current.getLeft();
+            } else {
+                current = current.getRight();
+            }
+        }
+
+        // And every node at or before to on the right path brings its left subtree.
+        current = split.getRight();
+        while (current != null) {
+            if (compare(toKey, toPrefix, current) >= 0) {
+                summary.addNode(current);
+                summary.addSubtree(current.getLeft());
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        return summary;
+    }
 
     /**
-     * Print the tree nodes in inorder traversal (LNR). 
-     * LNR means:
-     * Traverse the left subtree (L)
-     * Traverse the right subtree (N).
-     * Visit the current node (R).
+     * A helper method to count the countries ordered before a name.
+     *
+     * @param name      The name to compare against.
+     * @param inclusive true to also count a country with exactly this name.
+     * @return The number of countries less than (or equal to, if inclusive) the name.
      */
     
-    public void printInorder() {
-        System.out.printf("%-40s%-10s%n", "Name", "Happiness");
-        System.out.println("-----------------------------------------------------------------");
-        printInorderRecursive(root);
+    private int countBefore(String name, boolean inclusive) {
+        String key = sortKey(name);
+        long prefix = SortKeys.prefixOf(key);
+        int count = 0;
+        Node current = root;
+        while (current != null) {
+            int compareResult = compare(key, prefix, current);
+
+            if (compareResult > 0 || (compareResult == 0 && inclusive)) {
+                count += size(current.getLeft()) + 1;
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        return count;
     }
 
+    /**
+     * Insert a new node into the binary search tree based on country name.
+     * The other columns of the country record are left unknown.
+     *
+     * @param name      The name of the country.
+     * @param happiness The happiness index of the country.
+     */
+    
+    public void insert(String name, double happiness) {
+        insert(new Country(name, happiness));
+    }
 
     /**
-     * A helper method to perform an inorder traversal of the tree and print the nodes.
+     * Insert a full country record into the binary search tree based on country name.
+     * The descent is iterative and only the child pointer of the new node's parent is written;
+     * heights and subtree sizes are then refreshed bottom-up along the parent links.
      *
-     * @param current The current node being examined.
+     * @param country The country record.
      */
     
-    private void printInorderRecursive(Node current) {
-        if (current != null) {
-            printInorderRecursive(current.getLeft()); // Recursively traverse the left subtree
-            System.out.printf("%-40s%-10.2f%n", current.getCountryName(), current.getHappiness());
-            // Print the current node
-            printInorderRecursive(current.getRight()); // Recursively traverse the right subtree
+    public void insert(Country country) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        if (insertNode(newNode(country))) {
+            happinessIndex.insert(country);
+            viewsInserted(country);
+        }
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.INSERT, start);
         }
     }
+
+    /**
+     * Fill an empty tree with countries given in strictly ascending name order. The tree is built
+     * perfectly balanced in O(n) instead of through n single inserts.
+     *
+     * @param countries The country records, sorted by name and without duplicates.
+     * @param count     The number of records to use.
+     */
     
+    void buildFromSorted(Country[] countries, int count) {
+        build(countries, count, this::newNode);
+        happinessIndex.buildFromNameOrder(countries, count);
+    }
+
     /**
-     * Print the tree nodes in preorder traversal (NLR).
+     * Fill an empty tree and its happiness index from countries given in both orders, in O(n).
+     *
+     * @param countries   The country records, sorted by name and without duplicates.
+     * @param byHappiness The same records, sorted by happiness and then name.
+     * @param count       The number of records to use.
      */
     
-    public void printPreorder() {
-        System.out.printf("%-40s%-10s%n", "Name", "Happiness");
-        System.out.println("-----------------------------------------------------------------");
-        printPreorderRecursive(root);
+    void buildFromSorted(Country[] countries, Country[] byHappiness, int count) {
+        build(countries, count, this::newNode);
+        happinessIndex.build(byHappiness, count, HappinessIndex.Entry::new);
     }
 
     /**
-     * A helper method to perform an preorder traversal of the tree and print the nodes.
+     * Get the secondary index ordered by happiness and then name.
      *
-     * @param current The current node being examined.
+     * @return The happiness index of this tree.
      */
     
-    private void printPreorderRecursive(Node current) {
-        if (current != null) {
-            System.out.printf("%-40s%-10.2f%n", current.getCountryName(), current.getHappiness());
-            // Print the current node
-            printPreorderRecursive(current.getLeft()); // Recursively traverse the left subtree
-            printPreorderRecursive(current.getRight()); // Recursively traverse the right subtree
+    HappinessIndex happinessIndex() {
+        return happinessIndex;
+    }
+
+    /**
+     * Save the tree to a compact binary snapshot file that {@link #loadSnapshot(Path, boolean)} can reload
+     * much faster than the CSV file can be parsed.
+     *
+     * @param path The path of the snapshot file, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    
+    public void saveSnapshot(Path path) throws IOException {
+        TreeSnapshot.save(this, path);
+    }
+
+    /**
+     * Load a tree from a snapshot file written by {@link #saveSnapshot(Path)}. The file is memory-mapped
+     * and both the tree and its happiness index are rebuilt balanced in O(n), without comparisons.
+     *
+     * @param path     The path of the snapshot file.
+     * @param balanced true to create a self-balancing tree for later updates.
+     * @return The loaded tree.
+     * @throws IOException If the file cannot be read or is not a snapshot.
+     */
+    
+    public static BinarySearchTree loadSnapshot(Path path, boolean balanced) throws IOException {
+        return TreeSnapshot.load(path, balanced);
+    }
+
+    /**
+     * Compile the current contents into an immutable copy laid out for fast lookups, for trees that
+     * are only read once they are loaded. The copy answers find, range, prefix and top-k queries from
+     * a few flat arrays; this tree stays usable, but later changes to it do not reach the copy.
+     *
+     * @return The frozen copy of this tree.
+     */
+    
+    public FrozenTree freeze() {
+        Node[] nodes = new Node[size()];
+        int i = 0;
+        for (Node node = root == null ? null : minValueNode(root); node != null; node = successor(node)) {
+            nodes[i++] = node;
         }
+        return new FrozenTree(nodes, happinessIndex.lowest(nodes.length), normalizedKeys);
     }
     
     /**
-     * Print the tree nodes in postorder traversal (LNR).
+     * Find the happiness index of a country based on its name.
+     *
+     * @param name The name of the country to search for.
+     * @return The happiness index of the country, or -1 if the country is not found.
      */
     
-    public void printPostorder() {
-        System.out.printf("%-40s%-10s%n", "Name", "Happiness");
-        System.out.println("-----------------------------------------------------------------");
-        printPostorderRecursive(root);
+    public double find(String name) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        Node node = lookup(name);
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.FIND, start);
+        }
+        return node == null ? -1 : node.getHappiness(); // -1 means country not found.
     }
 
     /**
-     * A helper method to perform an postorder traversal of the tree and print the nodes.
+     * Find the full record of a country based on its name.
      *
-     * @param current The current node being examined.
-     */    
+     * @param name The name of the country to search for.
+     * @return The country record, or null if the country is not found.
+     */
     
-    private void printPostorderRecursive(Node current) {
-        if (current != null) {
-            printInorderRecursive(current.getLeft()); // Recursively traverse the left subtree
-            printInorderRecursive(current.getRight()); // Recursively traverse the right subtree
-            System.out.printf("%-40s%-10.2f%n", current.getCountryName(), current.getHappiness());
-            // Print the current node
+    public Country findCountry(String name) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        Node node = lookup(name);
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.FIND, start);
         }
+        return node == null ? null : node.getCountry();
     }
 
+    /**
+     * Get the greatest country name less than or equal to the given name.
+     *
+     * @param name The name to search for.
+     * @return The matching country name, or null if there is none.
+     */
     
+    public String floor(String name) {
+        return nameOf(boundNode(name, false, true));
+    }
+
     /**
-     * Get a list of the bottom countries based on their happiness indices.
+     * Get the least country name greater than or equal to the given name.
      *
-     * @param count The number of bottom countries to retrieve.
-     * @return An array of country names representing the bottom countries by happiness in ascending order.
+     * @param name The name to search for.
+     * @return The matching country name, or null if there is none.
      */
     
-    public String[] getBottomCountries(int count) {
-        String[] bottomCountries = new String[count];
-        double[] bottomHappiness = new double[count]; // Track the happiness values for the bottom countries
-        Arrays.fill(bottomHappiness, Double.MAX_VALUE);
+    public String ceiling(String name) {
+        return nameOf(boundNode(name, true, true));
+    }
 
-        getBottomCountriesRecursive(root, bottomCountries, bottomHappiness, count);
-        return bottomCountries;
+    /**
+     * Get the greatest country name strictly less than the given name.
+     *
+     * @param name The name to search for.
+     * @return The matching country name, or null if there is none.
+     */
+    
+    public String lower(String name) {
+        return nameOf(boundNode(name, false, false));
     }
 
-    // Helper method to retrieve the bottom countries by happiness recursively.
-    private void getBottomCountriesRecursive(Node current, String[] result, double[] happinessValues, int count) {
-        if (current != null) {
-            // Traverse the right subtree first
-            getBottomCountriesRecursive(current.getRight(), result, happinessValues, count);
-
-            // Check if the current country has lower happiness than the highest in the bottom list
-            double currentHappiness = current.getHappiness();
-            if (currentHappiness < happinessValues[count - 1]) {
-                // Insert the current country into the bottom list while maintaining ascending order
-                int index = count - 1;
-                while (index > 0 && currentHappiness < happinessValues[index - 1]) {
-                    happinessValues[index] = happinessValues[index - 1];
-                    result[index] = result[index - 1];
-                    index--;
-                }
-                happinessValues[index] = currentHappiness;
-                result[index] = current.getCountryName();
-            }
+    /**
+     * Get the least country name strictly greater than the given name.
+     *
+     * @param name The name to search for.
+     * @return The matching country name, or null if there is none.
+     */
+    
+    public String higher(String name) {
+        return nameOf(boundNode(name, true, false));
+    }
 
-            // Continue with the left subtree
-            getBottomCountriesRecursive(current.getLeft(), result, happinessValues, count);
-        }
+    /**
+     * Get the countries whose names fall between two bounds, both inclusive, in alphabetical order.
+     * The result is lazy: nodes are visited only as it is iterated, so reading the first k entries
+     * costs O(log n + k).
+     *
+     * @param from The lowest name to include.
+     * @param to   The highest name to include.
+     * @return The countries in the range.
+     */
+    
+    public Iterable<Country> range(String from, String to) {
+        String toKey = sortKey(to);
+        return () -> new InorderIterator(boundNode(from, true, true), toKey, null);
     }
 
+    /**
+     * Get the countries whose names start with the given prefix, in alphabetical order.
+     * Like {@link #range(String, String)}, the result is lazy.
+     *
+     * @param prefix The prefix the country names must start with.
+     * @return The countries with the prefix.
+     */
+    
+    public Iterable<Country> prefix(String prefix) {
+        String prefixKey = sortKey(prefix);
+        return () -> new InorderIterator(boundNode(prefix, true, true), null, prefixKey);
+    }
 
     /**
-     * Get a list of the top countries based on their happiness indices.
+     * Iterate over all countries in alphabetical order without recursion or an explicit stack,
+     * stepping from node to node along the parent links.
      *
-     * @param count The number of top countries to retrieve.
-     * @return An array of country names representing the top countries by happiness in descending order.
+     * @return An iterator over the countries.
      */
     
-    public String[] getTopCountries(int count) {
-        String[] topCountries = new String[count];
-        double[] topHappiness = new double[count]; // Track the happiness values for the top countries
-        Arrays.fill(topHappiness, Double.MIN_VALUE);
+    @Override
+    public Iterator<Country> iterator() {
+        return new InorderIterator(root == null ? null : minValueNode(root), null, null);
+    }
+
+    /**
+     * Create a spliterator over all countries in alphabetical order. It splits the tree at the middle
+     * position of its range using the subtree sizes, so both halves report their exact size and parallel
+     * streams divide the work evenly; ranges smaller than {@link #PARALLEL_THRESHOLD} are not split.
+     *
+     * @return A sized spliterator over the countries.
+     */
+    
+    @Override
+    public Spliterator<Country> spliterator() {
+        return new InorderSpliterator(root == null ? null : minValueNode(root), 0, size());
+    }
 
-        getTopCountriesRecursive(root, topCountries, topHappiness, count);
-        return topCountries;
+    /**
+     * Stream all countries in alphabetical order.
+     *
+     * @return A sequential stream over the countries.
+     */
+    
+    public Stream<Country> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
-    // Helper method to retrieve the top countries by happiness recursively.
-    private void getTopCountriesRecursive(Node current, String[] result, double[] happinessValues, int count) {
-        if (current != null) {
-            // Traverse the right subtree first
-            getTopCountriesRecursive(current.getRight(), result, happinessValues, count);
-
-            // Check if the current country has higher happiness than the lowest in the top list
-            double currentHappiness = current.getHappiness();
-            if (currentHappiness > happinessValues[count - 1]) {
-                // Insert the current country into the top list while maintaining descending order
-                int index = count - 1;
-                while (index > 0 && currentHappiness > happinessValues[index - 1]) {
-                    happinessValues[index] = happinessValues[index - 1];
-                    result[index] = result[index - 1];
-                    index--;
-                }
-                happinessValues[index] = currentHappiness;
-                result[index] = current.getCountryName();
-            }
+    /**
+     * Stream all countries in alphabetical order on the common fork-join pool.
+     * The tree must not be modified while the stream runs.
+     *
+     * @return A parallel stream over the countries.
+     */
+    
+    public Stream<Country> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Compute count, sum, mean, minimum and maximum of a numeric column in one pass.
+     * Trees of at least {@link #PARALLEL_THRESHOLD} countries are aggregated in parallel.
+     *
+     * @param column The column to aggregate.
+     * @return The statistics of the column; empty statistics for an empty tree.
+     */
+    
+    public DoubleSummaryStatistics statistics(CountryColumn column) {
+        return StreamSupport.stream(spliterator(), size() >= PARALLEL_THRESHOLD)
+                .mapToDouble(column::of)
+                .summaryStatistics();
+    }
+
+    /**
+     * The InorderSpliterator class covers the countries at positions from (inclusive) to to (exclusive).
+     * It advances along successor links and splits at the middle position, located with the subtree sizes.
+     */
+    
+    private class InorderSpliterator implements Spliterator<Country> {
+        private Node next; // The node at position from, null when the range is empty.
+        private int from; // Position of the next country to return.
+        private final int to; // Position after the last country to return.
+        private final int expectedModCount; // Tree modification count when the spliterator was created.
+
+        /**
+         * Constructor to create a spliterator over a range of positions.
+         *
+         * @param first The node at position from, or null for an empty range.
+         * @param from  The position of the first country.
+         * @param to    The position after the last country.
+         */
+        
+        InorderSpliterator(Node first, int from, int to) {
+            this.next = first;
+            this.from = from;
+            this.to = to;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Country> action) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (from >= to) {
+                return false;
+            }
+            Node current = next;
+            next = ++from < to ? successor(current) : null;
+            action.accept(current.getCountry());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Country> action) {
+            Node current = next;
+            int remaining = to - from;
+            next = null;
+            from = to;
+            for (; remaining > 0; remaining--) {
+                action.accept(current.getCountry());
+                current = remaining > 1 ? successor(current) : null;
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public Spliterator<Country> trySplit() {
+            if (to - from < PARALLEL_THRESHOLD || modCount != expectedModCount) {
+                return null;
+            }
+            int middle = (from + to) >>> 1;
+            InorderSpliterator prefix = new InorderSpliterator(next, from, middle);
+            next = selectNode(middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL
+                    | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * A helper method to find the closest node to a name in one direction.
+     *
+     * @param name      The name to search for.
+     * @param greater   true to look for names after the given name, false for names before it.
+     * @param inclusive true to accept a node with exactly this name.
+     * @return The closest matching node, or null if there is none.
+     */
+    
+    private Node boundNode(String name, boolean greater, boolean inclusive) {
+        String key = sortKey(name);
+        long prefix = SortKeys.prefixOf(key);
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            int compareResult = compare(key, prefix, current);
+
+            if (compareResult == 0 && inclusive) {
+                return current;
+            }
+            if (greater ? compareResult < 0 : compareResult > 0) {
+                best = current; // Candidate, look for a closer one towards the name.
+                current = greater ? current.getLeft() : current.getRight();
+            } else {
+                current = greater ? current.getRight() : current.getLeft();
+            }
+        }
+        return best;
+    }
+
+    // Helper method to get the country name of a possibly null node.
+    private static String nameOf(Node node) {
+        return node == null ? null : node.getCountryName();
+    }
+
+    /**
+     * The InorderIterator class walks the tree in alphabetical order from a starting node until an
+     * optional upper bound or prefix no longer matches, following successor links one node at a time.
+     */
+    
+    private class InorderIterator implements Iterator<Country> {
+        private Node next; // The next node to return, null when the iteration is done.
+        private final String to; // Inclusive upper bound on sort keys, or null for none.
+        private final String prefix; // Prefix sort keys must start with, or null for none.
+        private final int expectedModCount; // Tree modification count when the iterator was created.
+
+        /**
+         * Constructor to create an iterator starting at a node.
+         *
+         * @param first  The first node to return, or null for an empty iteration.
+         * @param to     The inclusive upper bound on sort keys, or null for none.
+         * @param prefix The prefix sort keys must start with, or null for none.
+         */
+        
+        InorderIterator(Node first, String to, String prefix) {
+            this.to = to;
+            this.prefix = prefix;
+            this.expectedModCount = modCount;
+            this.next = matches(first) ? first : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Country next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            Node current = next;
+            Node successor = successor(current);
+            next = matches(successor) ? successor : null;
+            return current.getCountry();
+        }
+
+        // Helper method to check whether a node is still inside the iterated range.
+        private boolean matches(Node node) {
+            if (node == null) {
+                return false;
+            }
+            if (to != null && node.getSortKey().compareTo(to) > 0) {
+                return false;
+            }
+            return prefix == null || node.getSortKey().startsWith(prefix);
+        }
+    }
+
+    /**
+     * Print the path between a specific country and the root of the binary search tree, starting at
+     * the country. The country is located by a single descent in BST order (or from the lookup cache),
+     * and the path is then read off the parent links, so this costs O(height).
+     *
+     * @param name The name of the country to find and print the path for.
+     */
+    
+    public void printPath(String name) {
+        Node node = lookup(name);
+        if (node == null) {
+            System.out.println(name + " is not found.");
+            return;
+        }
+
+        StringBuilder path = new StringBuilder(node.getCountryName());
+        for (Node current = node.getParent(); current != null; current = current.getParent()) {
+            path.append(" -> ").append(current.getCountryName());
+        }
+        System.out.print(path);
+    }
+    
+    
+    /**
+     * Delete a node from the binary search tree based on country name.
+     * A node with two children is replaced by its inorder successor, which is detached at the end of
+     * the same descent and relinked in its place; no record is copied between nodes.
+     *
+     * @param name The name of the country to delete.
+     */
+    
+    public void delete(String name) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        Node current = findNode(sortKey(name));
+        if (current != null) {
+            deleteCountryNode(current);
+        }
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.DELETE, start);
+        }
+    }
+
+    // Helper method to delete a node from the tree, the happiness index, the lookup cache and the views.
+    private void deleteCountryNode(Node node) {
+        Country country = node.getCountry();
+        happinessIndex.delete(country);
+        if (cache != null) {
+            cache.invalidate(node.getSortKey());
+        }
+        deleteNode(node);
+        for (int i = 0; i < views.size(); i++) {
+            views.get(i).deleted(country, happinessIndex);
+        }
+    }
+
+    // Helper method to hand a newly inserted country to the views.
+    private void viewsInserted(Country country) {
+        for (int i = 0; i < views.size(); i++) {
+            views.get(i).inserted(country);
+        }
+    }
+
+    // Helper method to reload the views after the tree was rebuilt.
+    private void refreshViews() {
+        for (int i = 0; i < views.size(); i++) {
+            views.get(i).refresh(happinessIndex);
+        }
+    }
+
+    /**
+     * Find the happiness indices of a batch of countries. The batch is sorted and looked up in one
+     * left-to-right pass: each search starts from the node found for the previous name and only climbs
+     * as far as needed, so neighbouring names share most of their path instead of each walking from the root.
+     *
+     * @param names The names of the countries to search for.
+     * @return The happiness indices, in the order of names, with -1 for countries that are not found.
+     */
+    
+    public double[] findAll(String[] names) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        double[] result = lookupAll(names);
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.FIND_ALL, start);
+        }
+        return result;
+    }
+
+    // Helper method to look up a batch of names in one pass of finger searches, for findAll.
+    private double[] lookupAll(String[] names) {
+        String[] keys = sortKeys(names);
+        double[] result = new double[names.length];
+        Node finger = null;
+        for (int i : sortedOrder(keys)) {
+            finger = fingerSearch(finger, keys[i]);
+            result[i] = finger != null && finger.getSortKey().equals(keys[i]) ? finger.getHappiness() : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Insert a batch of countries. Countries already in the tree, and repeats of a name within the batch
+     * after its first occurrence, are ignored, as with single inserts.
+     * <p>
+     * A small batch is sorted and merged in one left-to-right pass of finger searches like
+     * {@link #findAll(String[])}. A batch of at least half the tree's size is merged with the inorder
+     * contents of the tree instead, and both trees are rebuilt balanced in one go.
+     *
+     * @param countries The country records to insert.
+     * @return The number of countries inserted.
+     */
+    
+    public int insertAll(Country[] countries) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        int inserted = insertBatch(countries);
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.INSERT_ALL, start);
+        }
+        return inserted;
+    }
+
+    // Helper method to insert a batch of countries by finger searches or a rebuild, for insertAll.
+    private int insertBatch(Country[] countries) {
+        String[] names = new String[countries.length];
+        for (int i = 0; i < countries.length; i++) {
+            names[i] = countries[i].getCountryName();
+        }
+        String[] keys = sortKeys(names);
+        int[] order = sortedOrder(keys);
+        if (countries.length >= size() / 2 && countries.length > 0) {
+            return rebuildWith(countries, keys, order);
+        }
+
+        int inserted = 0;
+        Node finger = null;
+        for (int i : order) {
+            Node node = fingerSearch(finger, keys[i]);
+            if (node == null) {
+                finger = new Node(countries[i], keys[i]);
+                attach(null, finger, false);
+            } else {
+                int compareResult = keys[i].compareTo(node.getSortKey());
+                if (compareResult == 0) {
+                    finger = node; // Duplicate name, nothing changed.
+                    continue;
+                }
+                finger = new Node(countries[i], keys[i]);
+                attach(node, finger, compareResult < 0);
+            }
+            happinessIndex.insert(countries[i]);
+            viewsInserted(countries[i]);
+            inserted++;
+        }
+        return inserted;
+    }
+
+    /**
+     * Delete a batch of countries. A small batch is deleted in sorted order, so consecutive deletes
+     * revisit the same, already cached paths; a batch of at least half the tree's size rebuilds the
+     * tree from the remaining countries instead.
+     *
+     * @param names The names of the countries to delete.
+     * @return The number of countries deleted.
+     */
+    
+    public int deleteAll(String[] names) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        int deleted = deleteBatch(names);
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.DELETE_ALL, start);
+        }
+        return deleted;
+    }
+
+    // Helper method to delete a batch of countries in sorted order or by a rebuild, for deleteAll.
+    private int deleteBatch(String[] names) {
+        String[] keys = sortKeys(names);
+        int[] order = sortedOrder(keys);
+        int before = size();
+        if (names.length >= before / 2 && names.length > 0) {
+            Country[] remaining = new Country[before];
+            int count = 0;
+            int next = 0;
+            for (Node node = root == null ? null : minValueNode(root); node != null; node = successor(node)) {
+                String key = node.getSortKey();
+                while (next < order.length && keys[order[next]].compareTo(key) < 0) {
+                    next++;
+                }
+                if (next == order.length || !keys[order[next]].equals(key)) {
+                    remaining[count++] = node.getCountry();
+                }
+            }
+            clear();
+            happinessIndex.clear();
+            buildFromSorted(remaining, count);
+            refreshViews();
+        } else {
+            for (int i : order) {
+                Node node = findNode(keys[i]);
+                if (node != null) {
+                    deleteCountryNode(node);
+                }
+            }
+        }
+        return before - size();
+    }
+
+    /**
+     * A helper method to search for a key starting from the node found for a smaller key.
+     * It climbs from the finger until the key falls inside the current subtree, i.e. until it is below
+     * an ancestor of which the current subtree is the left child, and then descends as usual.
+     *
+     * @param finger The node found for the previous, smaller or equal key, or null to start at the root.
+     * @param key    The sort key to search for.
+     * @return The node with the key, or the node below which it would be inserted; null if the tree is empty.
+     */
+    
+    private Node fingerSearch(Node finger, String key) {
+        Node current = finger == null ? root : finger;
+        if (current == null) {
+            return null;
+        }
+        long prefix = SortKeys.prefixOf(key);
+        while (current.getParent() != null) {
+            Node parent = current.getParent();
+            if (parent.getLeft() == current) {
+                int compareResult = compare(key, prefix, parent);
+                if (compareResult < 0) {
+                    break; // The key is inside the current subtree.
+                } else if (compareResult == 0) {
+                    return parent;
+                }
+            }
+            current = parent;
+        }
+
+        while (true) {
+            int compareResult = compare(key, prefix, current);
+
+            if (compareResult == 0) {
+                return current;
+            }
+            Node next = compareResult < 0 ? current.getLeft() : current.getRight();
+            if (next == null) {
+                return current;
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * A helper method to merge the tree with a batch and rebuild it balanced, in O(n + m) plus the
+     * sort of the happiness index. Existing countries win over the batch, then first occurrences.
+     *
+     * @param countries The batch of country records.
+     * @param keys      The sort keys of the batch.
+     * @param order     The positions of the batch in key order (stable, so first occurrences come first).
+     * @return The number of countries inserted.
+     */
+    
+    private int rebuildWith(Country[] countries, String[] keys, int[] order) {
+        int before = size();
+        Country[] merged = new Country[before + countries.length];
+        int count = 0;
+        int next = 0;
+        String last = null; // Key of the last merged country.
+        for (Node node = root == null ? null : minValueNode(root); node != null; node = successor(node)) {
+            String key = node.getSortKey();
+            for (; next < order.length && keys[order[next]].compareTo(key) < 0; next++) {
+                if (!keys[order[next]].equals(last)) {
+                    merged[count++] = countries[order[next]];
+                    last = keys[order[next]];
+                }
+            }
+            while (next < order.length && keys[order[next]].equals(key)) {
+                next++;
+            }
+            merged[count++] = node.getCountry();
+            last = key;
+        }
+        for (; next < order.length; next++) {
+            if (!keys[order[next]].equals(last)) {
+                merged[count++] = countries[order[next]];
+                last = keys[order[next]];
+            }
+        }
+
+        clear();
+        happinessIndex.clear();
+        buildFromSorted(merged, count);
+        refreshViews();
+        return count - before;
+    }
+
+    // Helper method to get the sort keys of a batch of names.
+    private String[] sortKeys(String[] names) {
+        if (!normalizedKeys) {
+            return names;
+        }
+        String[] keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            keys[i] = sortKey(names[i]);
+        }
+        return keys;
+    }
+
+    /**
+     * A helper method to get the positions of keys in ascending order, stable for equal keys. A copy of
+     * the keys is merge sorted together with the positions in a primitive array, so no positions are
+     * boxed and every comparison reads the keys directly instead of through the positions.
+     *
+     * @param keys The keys to sort.
+     * @return The positions of the keys in ascending key order.
+     */
+    
+    private static int[] sortedOrder(String[] keys) {
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = i;
+        }
+        mergeSort(keys.clone(), order.clone(), keys.clone(), order, 0, keys.length);
+        return order;
+    }
+
+    /**
+     * A helper method to stably sort a range of keys and their positions. Both pairs of arrays must hold
+     * the same contents in the range; the sorted range ends up in keys and order, and the source arrays
+     * are used as scratch space.
+     *
+     * @param sourceKeys  The keys to sort, overwritten.
+     * @param sourceOrder The positions of sourceKeys, overwritten.
+     * @param keys        The array that receives the sorted keys.
+     * @param order       The array that receives the positions in key order.
+     * @param low         The start of the range, inclusive.
+     * @param high        The end of the range, exclusive.
+     */
+    
+    private static void mergeSort(String[] sourceKeys, int[] sourceOrder, String[] keys, int[] order, int low, int high) {
+        if (high - low <= INSERTION_SORT_THRESHOLD) {
+            for (int i = low + 1; i < high; i++) {
+                String key = keys[i];
+                int position = order[i];
+                int j = i;
+                for (; j > low && keys[j - 1].compareTo(key) > 0; j--) {
+                    keys[j] = keys[j - 1];
+                    order[j] = order[j - 1];
+                }
+                keys[j] = key;
+                order[j] = position;
+            }
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        mergeSort(keys, order, sourceKeys, sourceOrder, low, middle);
+        mergeSort(keys, order, sourceKeys, sourceOrder, middle, high);
+        // Merge the sorted halves back, taking from the left half on ties to keep the sort stable.
+        for (int i = low, left = low, right = middle; i < high; i++) {
+            if (right >= high || (left < middle && sourceKeys[left].compareTo(sourceKeys[right]) <= 0)) {
+                keys[i] = sourceKeys[left];
+                order[i] = sourceOrder[left++];
+            } else {
+                keys[i] = sourceKeys[right];
+                order[i] = sourceOrder[right++];
+            }
+        }
+    }
+
+    /**
+     * Print the tree nodes in inorder traversal (LNR). 
+     * LNR means:
+     * Traverse the left subtree (L)
+     * Visit the current node (N).
+     * Traverse the right subtree (R).
+     */
+    
+    public void printInorder() {
+        print(this::writeInorder);
+    }
+    
+    /**
+     * Print the tree nodes in preorder traversal (NLR).
+     */
+    
+    public void printPreorder() {
+        print(this::writePreorder);
+    }
+    
+    /**
+     * Print the tree nodes in postorder traversal (LRN).
+     */
+    
+    public void printPostorder() {
+        print(this::writePostorder);
+    }
+
+    /**
+     * Write the tree as a Name/Happiness table in inorder traversal. Rows are formatted by hand and
+     * appended to the destination, which can be a StringBuilder, a buffered Writer, or a Writer over
+     * a file channel (see java.nio.channels.Channels#newWriter).
+     *
+     * @param out The destination of the table.
+     * @throws IOException If the destination fails.
+     */
+    
+    public void writeInorder(Appendable out) throws IOException {
+        CountryTable table = new CountryTable(out);
+        table.writeHeader();
+        for (Node current = root == null ? null : minValueNode(root); current != null; current = successor(current)) {
+            table.writeRow(current.getCountry());
+        }
+    }
+
+    /**
+     * Write the tree as a Name/Happiness table in preorder traversal.
+     *
+     * @param out The destination of the table.
+     * @throws IOException If the destination fails.
+     */
+    
+    public void writePreorder(Appendable out) throws IOException {
+        CountryTable table = new CountryTable(out);
+        table.writeHeader();
+        for (Node current = root; current != null; current = preorderNext(current)) {
+            table.writeRow(current.getCountry());
+        }
+    }
+
+    /**
+     * Write the tree as a Name/Happiness table in postorder traversal.
+     *
+     * @param out The destination of the table.
+     * @throws IOException If the destination fails.
+     */
+    
+    public void writePostorder(Appendable out) throws IOException {
+        CountryTable table = new CountryTable(out);
+        table.writeHeader();
+        for (Node current = postorderFirst(root); current != null; current = postorderNext(current)) {
+            table.writeRow(current.getCountry());
+        }
+    }
+
+    /**
+     * Visit every country in inorder traversal, i.e. alphabetically, without recursion.
+     *
+     * @param action The action to perform on each country.
+     */
+    
+    public void forEachInorder(Consumer<? super Country> action) {
+        for (Node current = root == null ? null : minValueNode(root); current != null; current = successor(current)) {
+            action.accept(current.getCountry());
+        }
+    }
+
+    /**
+     * Visit every country in preorder traversal without recursion.
+     *
+     * @param action The action to perform on each country.
+     */
+    
+    public void forEachPreorder(Consumer<? super Country> action) {
+        for (Node current = root; current != null; current = preorderNext(current)) {
+            action.accept(current.getCountry());
+        }
+    }
+
+    /**
+     * Visit every country in postorder traversal without recursion.
+     *
+     * @param action The action to perform on each country.
+     */
+    
+    public void forEachPostorder(Consumer<? super Country> action) {
+        for (Node current = postorderFirst(root); current != null; current = postorderNext(current)) {
+            action.accept(current.getCountry());
+        }
+    }
+
+    /**
+     * A helper method to print a table to standard output through one buffered writer,
+     * flushed once at the end instead of once per row.
+     *
+     * @param writer The table writer, one of the writeXxx methods.
+     */
+    
+    private void print(TableWriter writer) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        try {
+            writer.write(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The TableWriter interface is a traversal that writes a table to a destination.
+     */
+    
+    @FunctionalInterface
+    private interface TableWriter {
+        void write(Appendable out) throws IOException;
+    }
+
+    // Helper method to get the node after a node in preorder, following parent links.
+    private static Node preorderNext(Node node) {
+        if (node.getLeft() != null) {
+            return node.getLeft();
+        }
+        if (node.getRight() != null) {
+            return node.getRight();
+        }
+        Node current = node;
+        Node parent = current.getParent();
+        while (parent != null) {
+            if (parent.getLeft() == current && parent.getRight() != null) {
+                return parent.getRight();
+            }
+            current = parent;
+            parent = parent.getParent();
+        }
+        return null;
+    }
+
+    // Helper method to get the first node of a subtree in postorder: its leftmost-deepest leaf.
+    private static Node postorderFirst(Node node) {
+        Node current = node;
+        while (current != null) {
+            if (current.getLeft() != null) {
+                current = current.getLeft();
+            } else if (current.getRight() != null) {
+                current = current.getRight();
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    // Helper method to get the node after a node in postorder, following parent links.
+    private static Node postorderNext(Node node) {
+        Node parent = node.getParent();
+        if (parent != null && parent.getLeft() == node && parent.getRight() != null) {
+            return postorderFirst(parent.getRight());
+        }
+        return parent;
+    }
+
+    
+    /**
+     * Register a view of the happiest countries that the tree keeps up to date on every insert and
+     * delete, for callers that read the top countries far more often than the tree changes.
+     *
+     * @param count The number of countries the view holds.
+     * @return The view, filled with the current top countries.
+     * @throws IllegalArgumentException If the count is not positive.
+     */
+    
+    public TopKView registerTopView(int count) {
+        return registerView(count, true);
+    }
+
+    /**
+     * Register a view of the least happy countries that the tree keeps up to date on every insert and
+     * delete.
+     *
+     * @param count The number of countries the view holds.
+     * @return The view, filled with the current bottom countries.
+     * @throws IllegalArgumentException If the count is not positive.
+     */
+    
+    public TopKView registerBottomView(int count) {
+        return registerView(count, false);
+    }
+
+    /**
+     * Stop updating a view. The view keeps the members it had.
+     *
+     * @param view The view to unregister.
+     */
+    
+    public void unregisterView(TopKView view) {
+        views.remove(view);
+    }
+
+    // Helper method to answer a top or bottom query from a large enough view, or else from the index.
+    private Country[] topOrBottom(boolean top, int count) {
+        for (int i = 0; i < views.size(); i++) {
+            TopKView view = views.get(i);
+            if (view.isTop() == top && view.getCount() >= count) {
+                return view.first(count);
+            }
+        }
+        return top ? happinessIndex.highest(count) : happinessIndex.lowest(count);
+    }
+
+    // Helper method to create and register a view.
+    private TopKView registerView(int count, boolean top) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("View size must be positive: " + count);
+        }
+        TopKView view = new TopKView(count, top, happinessIndex);
+        views.add(view);
+        return view;
+    }
+
+    /**
+     * Get a list of the bottom countries based on their happiness indices.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return An array of country names representing the bottom countries by happiness in ascending order.
+     */
+    
+    public String[] getBottomCountries(int count) {
+        return namesOf(getBottomCountryEntries(count));
+    }
+
+    /**
+     * Get the bottom countries based on their happiness indices, together with their happiness.
+     * Served from a registered bottom view holding at least count countries in O(count), otherwise from
+     * the happiness index in O(log n + count) without touching the name-ordered tree.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return The bottom countries by happiness in ascending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getBottomCountryEntries(int count) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        Country[] result = topOrBottom(false, count);
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.TOP_K, start);
+        }
+        return result;
+    }
+
+    /**
+     * Get a list of the top countries based on their happiness indices.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return An array of country names representing the top countries by happiness in descending order.
+     */
+    
+    public String[] getTopCountries(int count) {
+        return namesOf(getTopCountryEntries(count));
+    }
+
+    /**
+     * Get the top countries based on their happiness indices, together with their happiness.
+     * Served from a registered top view holding at least count countries in O(count), otherwise from
+     * the happiness index in O(log n + count) without touching the name-ordered tree.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return The top countries by happiness in descending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getTopCountryEntries(int count) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        Country[] result = topOrBottom(true, count);
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.TOP_K, start);
+        }
+        return result;
+    }
+
+    /**
+     * Get the countries with the highest values in a numeric column, in descending order.
+     * Happiness is served from the happiness index in O(log n + count); other columns are not
+     * indexed and take one pass over the tree with a bounded heap, O(n log count).
+     *
+     * @param column The column to rank by.
+     * @param count  The number of countries to retrieve.
+     * @return The top countries, at most count and at most size() of them; ties are broken by name.
+     */
+    
+    public Country[] getTopCountries(CountryColumn column, int count) {
+        if (column == CountryColumn.HAPPINESS) {
+            return getTopCountryEntries(count);
+        }
+        Comparator<Country> order = Comparator.comparingDouble(column::of)
+                .thenComparing(Country::getCountryName);
+        return selectExtremes(order, count);
+    }
+
+    /**
+     * Get the countries with the lowest values in a numeric column, in ascending order.
+     * Like {@link #getTopCountries(CountryColumn, int)}, only happiness is indexed.
+     *
+     * @param column The column to rank by.
+     * @param count  The number of countries to retrieve.
+     * @return The bottom countries, at most count and at most size() of them; ties are broken by name.
+     */
+    
+    public Country[] getBottomCountries(CountryColumn column, int count) {
+        if (column == CountryColumn.HAPPINESS) {
+            return getBottomCountryEntries(count);
+        }
+        Comparator<Country> order = Comparator.comparingDouble(column::of)
+                .thenComparing(Country::getCountryName);
+        return selectExtremes(order.reversed(), count);
+    }
+
+    /**
+     * Get a percentile of the happiness indices, interpolating linearly between the two closest
+     * positions: percentile 50 of an even number of countries is the mean of the middle two. Served
+     * from the subtree sizes of the happiness index with two O(log n) selections, without sorting.
+     *
+     * @param p The percentile, between 0 and 100.
+     * @return The happiness index at the percentile, or -1 if the tree is empty.
+     * @throws IllegalArgumentException If p is outside 0 to 100.
+     */
+    
+    public double percentile(double p) {
+        if (!(p >= 0 && p <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + p);
+        }
+        int count = size();
+        if (count == 0) {
+            return -1; // -1 means there is no country.
+        }
+        double position = (count - 1) * p / 100;
+        int lower = (int) position;
+        double value = happinessIndex.nodeAt(lower).getHappiness();
+        if (lower == position) {
+            return value;
+        }
+        return value + (position - lower) * (happinessIndex.nodeAt(lower + 1).getHappiness() - value);
+    }
+
+    /**
+     * Count the countries whose happiness index is strictly below a score, in O(log n).
+     *
+     * @param score The score to compare against.
+     * @return The number of countries below the score.
+     */
+    
+    public int countBelow(double score) {
+        return happinessIndex.countBelow(score, false);
+    }
+
+    /**
+     * Count the countries per happiness bucket. Bucket i holds the countries with a happiness index
+     * from bucketEdges[i] inclusive up to bucketEdges[i + 1] exclusive; the last bucket also includes
+     * its upper edge. Each edge costs one O(log n) descent of the happiness index.
+     *
+     * @param bucketEdges The bucket edges in strictly ascending order, at least two of them.
+     * @return The number of countries per bucket, one less than the number of edges.
+     * @throws IllegalArgumentException If there are fewer than two edges or they are not strictly ascending.
+     */
+    
+    public int[] histogram(double[] bucketEdges) {
+        if (bucketEdges.length < 2) {
+            throw new IllegalArgumentException("A histogram needs at least two bucket edges");
+        }
+        int[] counts = new int[bucketEdges.length - 1];
+        int below = happinessIndex.countBelow(bucketEdges[0], false);
+        for (int i = 0; i < counts.length; i++) {
+            if (!(bucketEdges[i] < bucketEdges[i + 1])) {
+                throw new IllegalArgumentException("Bucket edges must be strictly ascending: "
+                        + bucketEdges[i] + " then " + bucketEdges[i + 1]);
+            }
+            boolean last = i == counts.length - 1;
+            int upTo = happinessIndex.countBelow(bucketEdges[i + 1], last);
+            counts[i] = upTo - below;
+            below = upTo;
+        }
+        return counts;
+    }
+
+    /**
+     * A helper method to select the greatest countries under an ordering in one pass, keeping the
+     * best candidates seen so far in a heap whose head is the weakest of them. Trees of at least
+     * {@link #PARALLEL_THRESHOLD} countries are scanned in parallel with one heap per task, and the
+     * heaps are merged pairwise as the tasks complete.
+     *
+     * @param order The ordering, greatest first in the result.
+     * @param count The number of countries to retrieve.
+     * @return The greatest countries in descending order.
+     */
+    
+    private Country[] selectExtremes(Comparator<Country> order, int count) {
+        TreeMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        int limit = Math.max(0, Math.min(count, size()));
+        PriorityQueue<Country> heap;
+        if (limit == 0) {
+            heap = new PriorityQueue<>(1, order);
+        } else {
+            heap = StreamSupport.stream(spliterator(), size() >= PARALLEL_THRESHOLD).collect(
+                    () -> new PriorityQueue<>(limit, order),
+                    (candidates, country) -> offer(candidates, country, limit, order),
+                    (candidates, other) -> other.forEach(country -> offer(candidates, country, limit, order)));
+        }
+        Country[] result = new Country[limit];
+        for (int i = limit - 1; i >= 0; i--) {
+            result[i] = heap.poll();
+        }
+        if (metrics != null) {
+            record(metrics, TreeMetrics.Operation.TOP_K, start);
+        }
+        return result;
+    }
+
+    // Helper method to add a country to a bounded heap if it beats the weakest candidate.
+    private static void offer(PriorityQueue<Country> heap, Country country, int limit, Comparator<Country> order) {
+        if (heap.size() < limit) {
+            heap.add(country);
+        } else if (order.compare(country, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(country);
+        }
+    }
 
-            // Continue with the left subtree
-            getTopCountriesRecursive(current.getLeft(), result, happinessValues, count);
+    // Helper method to extract the country names from a list of entries.
+    private static String[] namesOf(Country[] countries) {
+        String[] names = new String[countries.length];
+        for (int i = 0; i < countries.length; i++) {
+            names[i] = countries[i].getCountryName();
         }
+        return names;
     }
 }
@@ -0,0 +1,230 @@
+package bst;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The ConcurrentBinarySearchTree class stores the same country information as BinarySearchTree but can
+ * be shared between threads without external locking. Readers never block: every read works on an
+ * immutable version of the tree, published through a volatile field. Writers are serialized with each
+ * other and publish a new version built by path copying, which allocates O(log n) nodes per update and
+ * shares the rest of the tree with the previous version.
+ * <p>
+ * Each version holds two balanced trees over the same countries: one ordered by name for lookups and
+ * range scans, and one ordered by happiness index for top and bottom queries.
+ */
+
+public class ConcurrentBinarySearchTree implements Iterable<Country> {
+    private volatile Version version; // The current version, replaced as a whole on every update.
+
+    /**
+     * Constructor to create an empty concurrent tree.
+     */
+    
+    public ConcurrentBinarySearchTree() {
+        version = new Version(null, null);
+    }
+
+    /**
+     * Insert a country. Concurrent readers keep seeing the previous version until this call returns.
+     * Inserting a name that is already present has no effect.
+     *
+     * @param name      The name of the country.
+     * @param happiness The happiness index of the country.
+     */
+    
+    public void insert(String name, double happiness) {
+        insert(new Country(name, happiness));
+    }
+
+    /**
+     * Insert a full country record. Concurrent readers keep seeing the previous version until this call
+     * returns. Inserting a name that is already present has no effect.
+     *
+     * @param country The country record.
+     */
+    
+    public synchronized void insert(Country country) {
+        Version current = version;
+        if (PersistentNode.find(current.byName, country.getCountryName()) != null) {
+            return; // Duplicate name, nothing changed.
+        }
+        version = new Version(PersistentNode.insert(current.byName, false, country),
+                PersistentNode.insert(current.byHappiness, true, country));
+    }
+
+    /**
+     * Delete a country. Concurrent readers keep seeing the previous version until this call returns.
+     *
+     * @param name The name of the country to delete.
+     */
+    
+    public synchronized void delete(String name) {
+        Version current = version;
+        PersistentNode node = PersistentNode.find(current.byName, name);
+        if (node == null) {
+            return;
+        }
+        version = new Version(PersistentNode.delete(current.byName, false, node.country),
+                PersistentNode.delete(current.byHappiness, true, node.country));
+    }
+
+    /**
+     * Find the happiness index of a country based on its name. Never blocks.
+     *
+     * @param name The name of the country to search for.
+     * @return The happiness index of the country, or -1 if the country is not found.
+     */
+    
+    public double find(String name) {
+        PersistentNode node = PersistentNode.find(version.byName, name);
+        return node == null ? -1 : node.country.getHappiness(); // -1 means country not found.
+    }
+
+    /**
+     * Find the full record of a country based on its name. Never blocks.
+     *
+     * @param name The name of the country to search for.
+     * @return The country record, or null if the country is not found.
+     */
+    
+    public Country findCountry(String name) {
+        PersistentNode node = PersistentNode.find(version.byName, name);
+        return node == null ? null : node.country;
+    }
+
+    /**
+     * Get the number of countries in the current version. Never blocks.
+     *
+     * @return The number of countries.
+     */
+    
+    public int size() {
+        return PersistentNode.size(version.byName);
+    }
+
+    /**
+     * Get the top countries based on their happiness indices from the current version. Never blocks.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return The top countries by happiness in descending order, at most count of them.
+     */
+    
+    public Country[] getTopCountryEntries(int count) {
+        return first(new SnapshotIterator(version.byHappiness, null, null, true), count);
+    }
+
+    /**
+     * Get the bottom countries based on their happiness indices from the current version. Never blocks.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return The bottom countries by happiness in ascending order, at most count of them.
+     */
+    
+    public Country[] getBottomCountryEntries(int count) {
+        return first(new SnapshotIterator(version.byHappiness, null, null, false), count);
+    }
+
+    /**
+     * Get the countries whose names fall between two bounds, both inclusive, in alphabetical order.
+     * Each iteration reads the version current when it starts and is not affected by later updates.
+     *
+     * @param from The lowest name to include.
+     * @param to   The highest name to include.
+     * @return The countries in the range.
+     */
+    
+    public Iterable<Country> range(String from, String to) {
+        return () -> new SnapshotIterator(version.byName, from, to, false);
+    }
+
+    /**
+     * Iterate over all countries of the current version in alphabetical order. Never blocks.
+     *
+     * @return An iterator over the countries.
+     */
+    
+    @Override
+    public Iterator<Country> iterator() {
+        return new SnapshotIterator(version.byName, null, null, false);
+    }
+
+    // Helper method to copy up to count entries out of an iterator.
+    private static Country[] first(SnapshotIterator iterator, int count) {
+        Country[] result = new Country[Math.max(0, Math.min(count, iterator.size))];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = iterator.next();
+        }
+        return result;
+    }
+
+    /**
+     * The Version class is one immutable state of the tree: the roots of both orderings.
+     */
+    
+    private static final class Version {
+        final PersistentNode byName; // Root of the tree ordered by name.
+        final PersistentNode byHappiness; // Root of the tree ordered by happiness and then name.
+
+        Version(PersistentNode byName, PersistentNode byHappiness) {
+            this.byName = byName;
+            this.byHappiness = byHappiness;
+        }
+    }
+
+    /**
+     * The SnapshotIterator class walks one version of a tree in order with an explicit stack holding
+     * at most one root-to-leaf path, optionally starting at a lower name bound and stopping at an upper one.
+     */
+    
+    private static final class SnapshotIterator implements Iterator<Country> {
+        private final ArrayDeque<PersistentNode> stack = new ArrayDeque<>(); // Pending ancestors.
+        private final String to; // Inclusive upper bound on names, or null for none.
+        private final boolean descending; // true to walk from the largest node down.
+        final int size; // Number of nodes in the walked version.
+
+        /**
+         * Constructor to create an iterator positioned at the first matching node.
+         *
+         * @param root       The root of the version to walk, may be null.
+         * @param from       The inclusive lower bound on names, or null for none; only used ascending.
+         * @param to         The inclusive upper bound on names, or null for none; only used ascending.
+         * @param descending true to walk from the largest node down.
+         */
+        
+        SnapshotIterator(PersistentNode root, String from, String to, boolean descending) {
+            this.to = to;
+            this.descending = descending;
+            this.size = PersistentNode.size(root);
+            PersistentNode current = root;
+            while (current != null) {
+                if (from != null && current.country.getCountryName().compareTo(from) < 0) {
+                    current = current.right; // Everything on the left is below the range too.
+                } else {
+                    stack.push(current);
+                    current = descending ? current.right : current.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (to == null || stack.peek().country.getCountryName().compareTo(to) <= 0);
+        }
+
+        @Override
+        public Country next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            PersistentNode node = stack.pop();
+            PersistentNode current = descending ? node.left : node.right;
+            while (current != null) {
+                stack.push(current);
+                current = descending ? current.right : current.left;
+            }
+            return node.country;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package bst;
+
+/**
+ * The Country class is an immutable record of one country stored in a BinarySearchTree.
+ * Nodes of the tree and of its secondary indexes share the same record, and queries return it
+ * directly, so every result carries the name, the happiness index and the other CSV columns.
+ * The numeric columns are primitive fields, so a record costs one object plus its strings.
+ */
+
+public class Country {
+    private final String countryName; // The name of the country.
+    private final String capital; // The capital city, or null if unknown.
+    private final long population; // The population, 0 if unknown.
+    private final double gdp; // The gross domestic product, 0 if unknown.
+    private final double area; // The area, 0 if unknown.
+    private final double happiness; // The happiness index of the country.
+
+    /**
+     * Constructor to create a new Country with only a name and happiness index;
+     * the other columns are unknown.
+     *
+     * @param countryName The name of the country.
+     * @param happiness   The happiness index of the country.
+     */
+    
+    public Country(String countryName, double happiness) {
+        this(countryName, null, 0, 0, 0, happiness);
+    }
+
+    /**
+     * Constructor to create a new Country with all columns of the CSV file.
+     *
+     * @param countryName The name of the country.
+     * @param capital     The capital city, or null if unknown.
+     * @param population  The population.
+     * @param gdp         The gross domestic product.
+     * @param area        The area.
+     * @param happiness   The happiness index of the country.
+     */
+    
+    public Country(String countryName, String capital, long population, double gdp, double area, double happiness) {
+        this.countryName = countryName;
+        this.capital = capital;
+        this.population = population;
+        this.gdp = gdp;
+        this.area = area;
+        this.happiness = happiness;
+    }
+
+    /**
+     * Get the name of the country.
+     *
+     * @return The name of the country.
+     */
+    
+    public String getCountryName() {
+        return countryName;
+    }
+
+    /**
+     * Get the capital city of the country.
+     *
+     * @return The capital city, or null if unknown.
+     */
+    
+    public String getCapital() {
+        return capital;
+    }
+
+    /**
+     * Get the population of the country.
+     *
+     * @return The population, 0 if unknown.
+     */
+    
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Get the gross domestic product of the country.
+     *
+     * @return The GDP, 0 if unknown.
+     */
+    
+    public double getGdp() {
+        return gdp;
+    }
+
+    /**
+     * Get the area of the country.
+     *
+     * @return The area, 0 if unknown.
+     */
+    
+    public double getArea() {
+        return area;
+    }
+
+    /**
+     * Get the happiness index of the country.
+     *
+     * @return The happiness index.
+     */
+    
+    public double getHappiness() {
+        return happiness;
+    }
+
+    @Override
+    public String toString() {
+        return countryName + " (" + happiness + ")";
+    }
+}
@@ -0,0 +1,42 @@
+package bst;
+
+/**
+ * The CountryColumn enum names the numeric columns of a country record,
+ * so that queries such as top-k can rank countries by any of them.
+ */
+
+public enum CountryColumn {
+    POPULATION {
+        @Override
+        public double of(Country country) {
+            return country.getPopulation();
+        }
+    },
+    GDP {
+        @Override
+        public double of(Country country) {
+            return country.getGdp();
+        }
+    },
+    AREA {
+        @Override
+        public double of(Country country) {
+            return country.getArea();
+        }
+    },
+    HAPPINESS {
+        @Override
+        public double of(Country country) {
+            return country.getHappiness();
+        }
+    };
+
+    /**
+     * Get the value of this column for a country.
+     *
+     * @param country The country record.
+     * @return The value of the column.
+     */
+    
+    public abstract double of(Country country);
+}
@@ -0,0 +1,237 @@
+package bst;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The CountryCsvLoader class loads a countries CSV file into a BinarySearchTree in one pass.
+ * <p>
+ * The file is memory-mapped and scanned byte by byte: fields are located by their comma positions,
+ * only the name and capital fields are turned into Strings, and numbers are parsed straight from the mapped bytes.
+ * The expected layout is a header line followed by rows of exactly six fields
+ * (name, capital, population, GDP, area, happiness index); other rows are skipped.
+ * <p>
+ * Rows are collected first and the tree is then bulk-built perfectly balanced. Sorted files are built
+ * in O(n); unsorted files are sorted by name first. When a name repeats, its first row wins, as with insert.
+ */
+
+public class CountryCsvLoader {
+    private static final int FIELDS = 6; // Number of fields in a data row.
+    private static final int CAPITAL_FIELD = 1; // Position of the capital city in a row.
+    private static final int POPULATION_FIELD = 2; // Position of the population in a row.
+    private static final int GDP_FIELD = 3; // Position of the GDP in a row.
+    private static final int AREA_FIELD = 4; // Position of the area in a row.
+    private static final int HAPPINESS_FIELD = 5; // Position of the happiness index in a row.
+
+    // Exact powers of ten, used by the fast path of the number parser.
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CountryCsvLoader() {
+    }
+
+    /**
+     * Load a countries CSV file into a new tree.
+     *
+     * @param path     The path of the CSV file.
+     * @param balanced true to create a self-balancing tree for later updates.
+     * @return The tree holding every country of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    
+    public static BinarySearchTree load(Path path, boolean balanced) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("CSV file is too large to map: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        Country[] countries = new Country[64];
+        int count = 0;
+        boolean sorted = true;
+        byte[] scratch = new byte[64];
+        int[] starts = new int[FIELDS + 1]; // Start of each field, plus one past the end of the row.
+
+        int limit = buffer.limit();
+        int position = skipLine(buffer, 0, limit); // Header line
+        while (position < limit) {
+            int end = position;
+            int fields = 1;
+            starts[0] = position;
+            while (end < limit && buffer.get(end) != '\n') {
+                if (buffer.get(end) == ',') {
+                    if (fields < FIELDS) {
+                        starts[fields] = end + 1;
+                    }
+                    fields++;
+                }
+                end++;
+            }
+            starts[FIELDS] = (end > position && buffer.get(end - 1) == '\r' ? end - 1 : end) + 1;
+
+            if (fields == FIELDS) {
+                if (count == countries.length) {
+                    countries = Arrays.copyOf(countries, count * 2);
+                }
+                scratch = ensureCapacity(scratch, starts[1] - 1 - starts[0]);
+                String name = decode(buffer, starts[0], starts[1] - 1, scratch);
+                scratch = ensureCapacity(scratch, starts[CAPITAL_FIELD + 1] - 1 - starts[CAPITAL_FIELD]);
+                String capital = decode(buffer, starts[CAPITAL_FIELD], starts[CAPITAL_FIELD + 1] - 1, scratch);
+                countries[count] = new Country(name, capital,
+                        (long) parseField(buffer, starts, POPULATION_FIELD),
+                        parseField(buffer, starts, GDP_FIELD),
+                        parseField(buffer, starts, AREA_FIELD),
+                        parseField(buffer, starts, HAPPINESS_FIELD));
+                if (count > 0 && countries[count - 1].getCountryName().compareTo(name) >= 0) {
+                    sorted = false;
+                }
+                count++;
+            }
+            position = end + 1;
+        }
+
+        BinarySearchTree tree = new BinarySearchTree(balanced);
+        if (!sorted) {
+            count = sortByName(countries, count);
+        }
+        tree.buildFromSorted(countries, count);
+        return tree;
+    }
+
+    // Helper method to grow the scratch buffer if a field does not fit.
+    private static byte[] ensureCapacity(byte[] scratch, int length) {
+        return scratch.length >= length ? scratch : new byte[length * 2];
+    }
+
+    // Helper method to decode the UTF-8 bytes between start and end into a String.
+    private static String decode(ByteBuffer buffer, int start, int end, byte[] scratch) {
+        buffer.get(start, scratch, 0, end - start);
+        return new String(scratch, 0, end - start, StandardCharsets.UTF_8);
+    }
+
+    // Helper method to parse the numeric field at a position of the current row.
+    private static double parseField(ByteBuffer buffer, int[] starts, int field) {
+        return parseDouble(buffer, starts[field], starts[field + 1] - 1);
+    }
+
+    // Helper method to return the position just after the end of the line starting at position.
+    private static int skipLine(ByteBuffer buffer, int position, int limit) {
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        return position + 1;
+    }
+
+    /**
+     * A helper method to sort country records by name in place, dropping later rows that repeat a name.
+     *
+     * @param countries The country records.
+     * @param count     The number of rows in use.
+     * @return The number of rows left after removing duplicates.
+     */
+    
+    private static int sortByName(Country[] countries, int count) {
+        Arrays.sort(countries, 0, count, Comparator.comparing(Country::getCountryName)); // Stable, so first rows come first.
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || !countries[unique - 1].getCountryName().equals(countries[i].getCountryName())) {
+                countries[unique++] = countries[i];
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Parse a decimal number such as 5.763, -12 or 2.71E+11 directly from bytes.
+     * Numbers with at most 18 significant digits and a small exponent are converted exactly with
+     * a single multiplication or division; anything else falls back to Double.parseDouble.
+     *
+     * @param buffer The buffer holding the text.
+     * @param start  The position of the first character.
+     * @param end    The position just after the last character.
+     * @return The parsed value.
+     * @throws NumberFormatException If the text is not a number.
+     */
+    
+    static double parseDouble(ByteBuffer buffer, int start, int end) {
+        int position = start;
+        boolean negative = position < end && buffer.get(position) == '-';
+        if (negative || (position < end && buffer.get(position) == '+')) {
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (seenPoint) {
+                        scale--;
+                    }
+                } else if (!seenPoint) {
+                    scale++; // Digits past the precision limit only shift the value.
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (position < end && (buffer.get(position) == 'e' || buffer.get(position) == 'E') && seenDigit) {
+            position++;
+            boolean negativeExponent = position < end && buffer.get(position) == '-';
+            if (negativeExponent || (position < end && buffer.get(position) == '+')) {
+                position++;
+            }
+            int exponent = 0;
+            int exponentStart = position;
+            for (; position < end && buffer.get(position) >= '0' && buffer.get(position) <= '9'; position++) {
+                exponent = Math.min(exponent * 10 + (buffer.get(position) - '0'), 100_000);
+            }
+            if (position == exponentStart) {
+                return fallback(buffer, start, end);
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (!seenDigit || position != end) {
+            return fallback(buffer, start, end);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (digits > 15 || scale < -22 || scale > 22) {
+            return fallback(buffer, start, end); // Not exactly representable in one step.
+        } else {
+            value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+        }
+        return negative ? -value : value;
+    }
+
+    // Helper method to parse a number the slow way, also producing the standard error for bad input.
+    private static double fallback(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII).trim());
+    }
+}
@@ -0,0 +1,335 @@
+package bst;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The CountryStore class makes the inserts and deletes of a BinarySearchTree durable with a write-ahead log.
+ * <p>
+ * Every change is appended to the log before it is applied to the tree. Appends are buffered and the log is
+ * forced to disk once per group of changes (group commit): after syncEvery changes, on {@link #sync()} and on
+ * {@link #close()}. A crash can therefore lose at most the last syncEvery - 1 changes; with syncEvery set to 1
+ * every change is on disk before its call returns.
+ * <p>
+ * On open, the store loads the snapshot file (if there is one) and replays the log on top of it. A record cut
+ * short by a crash fails its checksum and is truncated away. Once the log grows past a size threshold, it is
+ * compacted: the tree is written to a new snapshot, which atomically replaces the old one, and the log is
+ * emptied. Replaying a log over a snapshot that already contains its changes gives the same tree, so a crash
+ * between those two steps is harmless.
+ * <p>
+ * Log record layout: int payload length, int CRC-32 of the payload, then the payload:
+ * a type byte (insert or delete) followed by the country fields, strings as int length plus UTF-8 bytes.
+ */
+
+public class CountryStore implements Closeable {
+    private static final byte INSERT = 1; // Record type of an insert.
+    private static final byte DELETE = 2; // Record type of a delete.
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES; // Length and checksum.
+
+    private final BinarySearchTree tree; // The tree holding the current data.
+    private final Path snapshot; // Path of the snapshot file.
+    private final FileChannel channel; // Append channel of the log.
+    private final int syncEvery; // Number of changes per forced write.
+    private final long compactAfterBytes; // Log size that triggers compaction.
+    private final CRC32 crc = new CRC32(); // Reused checksum.
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16); // Appended records not yet written.
+    private int unsynced; // Number of changes since the last forced write.
+    private long logBytes; // Current size of the log, including buffered records.
+
+    /**
+     * Constructor used by {@link #open}.
+     */
+    
+    private CountryStore(BinarySearchTree tree, Path snapshot, FileChannel channel,
+                         int syncEvery, long compactAfterBytes, long logBytes) {
+        this.tree = tree;
+        this.snapshot = snapshot;
+        this.channel = channel;
+        this.syncEvery = syncEvery;
+        this.compactAfterBytes = compactAfterBytes;
+        this.logBytes = logBytes;
+    }
+
+    /**
+     * Open a store: load the snapshot if it exists, replay the log if it exists, and open the log for appending.
+     *
+     * @param snapshot          The snapshot file.
+     * @param log               The write-ahead log file.
+     * @param syncEvery         The number of changes per forced write, at least 1.
+     * @param compactAfterBytes The log size in bytes after which the log is compacted into the snapshot.
+     * @return The opened store.
+     * @throws IOException If the files cannot be read or the log cannot be opened.
+     */
+    
+    public static CountryStore open(Path snapshot, Path log, int syncEvery, long compactAfterBytes) throws IOException {
+        if (syncEvery < 1) {
+            throw new IllegalArgumentException("syncEvery must be at least 1: " + syncEvery);
+        }
+        BinarySearchTree tree = Files.exists(snapshot)
+                ? BinarySearchTree.loadSnapshot(snapshot, true)
+                : new BinarySearchTree(true);
+
+        FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long valid = replay(tree, channel);
+            if (valid < channel.size()) {
+                channel.truncate(valid); // Drop a torn record left by a crash.
+                channel.force(true);
+            }
+            channel.position(valid);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new CountryStore(tree, snapshot, channel, syncEvery, compactAfterBytes, channel.position());
+    }
+
+    /**
+     * Get the tree holding the current data. Changes must go through the store. The tree is not
+     * thread-safe, and even reads modify it (the lookup cache) or fail fast (iterators), so reads must
+     * happen on the thread that makes the changes, or while holding the store's lock:
+     * {@code synchronized (store) { store.getTree().find(name); }}.
+     *
+     * @return The tree.
+     */
+    
+    public BinarySearchTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Insert a country, logging it first. Inserting a name that is already present has no effect.
+     *
+     * @param country The country record.
+     * @throws IOException If the log cannot be written.
+     */
+    
+    public synchronized void insert(Country country) throws IOException {
+        if (tree.findCountry(country.getCountryName()) != null) {
+            return; // Duplicate name, nothing to log.
+        }
+        byte[] name = country.getCountryName().getBytes(StandardCharsets.UTF_8);
+        byte[] capital = country.getCapital() == null ? null : country.getCapital().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = record(1 + 2 * Integer.BYTES + name.length + (capital == null ? 0 : capital.length)
+                + Long.BYTES + 3 * Double.BYTES);
+        payload.put(INSERT);
+        putBytes(payload, name);
+        putBytes(payload, capital);
+        payload.putLong(country.getPopulation());
+        payload.putDouble(country.getGdp());
+        payload.putDouble(country.getArea());
+        payload.putDouble(country.getHappiness());
+        append(payload);
+        tree.insert(country);
+        afterChange();
+    }
+
+    /**
+     * Delete a country, logging it first.
+     *
+     * @param name The name of the country to delete.
+     * @throws IOException If the log cannot be written.
+     */
+    
+    public synchronized void delete(String name) throws IOException {
+        if (tree.findCountry(name) == null) {
+            return; // Nothing to delete, nothing to log.
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = record(1 + Integer.BYTES + bytes.length);
+        payload.put(DELETE);
+        putBytes(payload, bytes);
+        append(payload);
+        tree.delete(name);
+        afterChange();
+    }
+
+    /**
+     * Write all buffered changes and force them to disk.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    
+    public synchronized void sync() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        channel.force(false);
+        unsynced = 0;
+    }
+
+    /**
+     * Write the tree to a new snapshot, replace the old snapshot with it atomically, and empty the log.
+     *
+     * @throws IOException If the snapshot or the log cannot be written.
+     */
+    
+    public synchronized void compact() throws IOException {
+        sync();
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        tree.saveSnapshot(temporary);
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(snapshot.toAbsolutePath().getParent()); // The rename must be durable before the log is emptied.
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        logBytes = 0;
+    }
+
+    /**
+     * A helper method to force the entries of a directory to disk, so that a rename inside it survives
+     * a crash. Platforms that cannot open a directory as a channel, like Windows, are skipped; they
+     * make the rename durable on their own.
+     *
+     * @param directory The directory.
+     * @throws IOException If the directory cannot be forced.
+     */
+    
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel file = FileChannel.open(directory, StandardOpenOption.READ)) {
+            file.force(true);
+        } catch (AccessDeniedException e) {
+            // Directories cannot be opened on this platform.
+        }
+    }
+
+    /**
+     * Force all buffered changes to disk and close the log.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Helper method to start a record with room for the header and a payload of the given size.
+    private ByteBuffer record(int payloadBytes) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadBytes);
+        record.position(RECORD_HEADER_BYTES);
+        return record;
+    }
+
+    // Helper method to put a length-prefixed byte string, with length -1 for null.
+    private static void putBytes(ByteBuffer payload, byte[] bytes) {
+        if (bytes == null) {
+            payload.putInt(-1);
+        } else {
+            payload.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    // Helper method to fill in the header of a record and add it to the write buffer.
+    private void append(ByteBuffer record) throws IOException {
+        int payloadBytes = record.position() - RECORD_HEADER_BYTES;
+        crc.reset();
+        crc.update(record.array(), RECORD_HEADER_BYTES, payloadBytes);
+        record.putInt(0, payloadBytes);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+
+        if (buffer.remaining() < record.remaining()) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            if (buffer.capacity() < record.remaining()) {
+                buffer = ByteBuffer.allocate(record.remaining());
+            }
+        }
+        logBytes += record.remaining();
+        buffer.put(record);
+    }
+
+    // Helper method to apply the sync and compaction policies after a change was applied.
+    private void afterChange() throws IOException {
+        if (++unsynced >= syncEvery) {
+            sync();
+        }
+        if (logBytes >= compactAfterBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * A helper method to apply every intact record of a log to a tree.
+     *
+     * @param tree    The tree to apply the records to.
+     * @param channel The log.
+     * @return The length of the intact prefix of the log.
+     * @throws IOException If the log cannot be read.
+     */
+    
+    private static long replay(BinarySearchTree tree, FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Write-ahead log is too large to replay; compact it more often.");
+        }
+        ByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (position + RECORD_HEADER_BYTES <= log.limit()) {
+            int payloadBytes = log.getInt(position);
+            int checksum = log.getInt(position + Integer.BYTES);
+            int start = position + RECORD_HEADER_BYTES;
+            if (payloadBytes <= 0 || payloadBytes > log.limit() - start) {
+                break; // Torn record.
+            }
+            ByteBuffer payload = log.slice(start, payloadBytes);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break; // Torn or corrupt record.
+            }
+
+            byte type = payload.get();
+            String name = getString(payload);
+            if (type == INSERT) {
+                String capital = getString(payload);
+                tree.insert(new Country(name, capital, payload.getLong(), payload.getDouble(),
+                        payload.getDouble(), payload.getDouble()));
+            } else if (type == DELETE) {
+                tree.delete(name);
+            } else {
+                break;
+            }
+            position = start + payloadBytes;
+        }
+        return position;
+    }
+
+    // Helper method to read a length-prefixed UTF-8 string, null for length -1.
+    private static String getString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
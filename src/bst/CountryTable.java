@@ -0,0 +1,112 @@
+package bst;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The CountryTable class writes countries as the fixed-width "Name / Happiness" table printed by the
+ * traversals. Rows are formatted by hand into a reusable buffer instead of going through printf, which
+ * parses its format string and locks the stream once per row.
+ * <p>
+ * The output matches "%-40s%-10.2f%n" in the root locale: happiness is rounded half-up to two
+ * decimals, like Formatter does.
+ */
+
+class CountryTable {
+    private static final String SEPARATOR = "-----------------------------------------------------------------";
+    private static final int NAME_WIDTH = 40; // Width of the name column.
+    private static final int HAPPINESS_WIDTH = 10; // Width of the happiness column.
+
+    private final Appendable out; // Destination of the table.
+    private final StringBuilder row = new StringBuilder(64); // Reused buffer for one row.
+    private final String lineSeparator = System.lineSeparator(); // Line separator, as %n.
+
+    /**
+     * Constructor to create a table writer.
+     *
+     * @param out The destination of the table.
+     */
+    
+    CountryTable(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Write the column headings and the separator line.
+     *
+     * @throws IOException If the destination fails.
+     */
+    
+    void writeHeader() throws IOException {
+        row.setLength(0);
+        pad(row.append("Name"), NAME_WIDTH);
+        pad(row.append("Happiness"), NAME_WIDTH + HAPPINESS_WIDTH);
+        row.append(lineSeparator).append(SEPARATOR).append(lineSeparator);
+        out.append(row);
+    }
+
+    /**
+     * Write one country as a row.
+     *
+     * @param country The country to write.
+     * @throws IOException If the destination fails.
+     */
+    
+    void writeRow(Country country) throws IOException {
+        writeRow(country.getCountryName(), country.getHappiness());
+    }
+
+    /**
+     * Write one country, given by name and happiness index, as a row.
+     *
+     * @param name      The name of the country.
+     * @param happiness The happiness index of the country.
+     * @throws IOException If the destination fails.
+     */
+    
+    void writeRow(String name, double happiness) throws IOException {
+        row.setLength(0);
+        pad(row.append(name), NAME_WIDTH);
+        int start = row.length();
+        appendTwoDecimals(row, happiness);
+        pad(row, start + HAPPINESS_WIDTH);
+        row.append(lineSeparator);
+        out.append(row);
+    }
+
+    // Helper method to pad a builder with spaces up to a length.
+    private static void pad(StringBuilder builder, int length) {
+        while (builder.length() < length) {
+            builder.append(' ');
+        }
+    }
+
+    /**
+     * Append a number rounded half-up to two decimals. Values that have at most three decimals,
+     * like every happiness index in the data, are formatted with integer arithmetic; anything else
+     * goes through String.format.
+     *
+     * @param builder The builder to append to.
+     * @param value   The value to format.
+     */
+    
+    static void appendTwoDecimals(StringBuilder builder, double value) {
+        double magnitude = Math.abs(value);
+        long thousandths = Math.round(magnitude * 1000);
+        if (!(magnitude < 1e15) || thousandths / 1000.0 != magnitude) {
+            builder.append(String.format(Locale.ROOT, "%.2f", value));
+            return;
+        }
+
+        long hundredths = (thousandths + 5) / 10; // Half-up, away from zero as for the sign below.
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            builder.append('-');
+        }
+        builder.append(hundredths / 100).append('.');
+        long cents = hundredths % 100;
+        if (cents < 10) {
+            builder.append('0');
+        }
+        builder.append(cents);
+    }
+}
@@ -0,0 +1,269 @@
+package bst;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The FrozenTree class is an immutable, read-only copy of a BinarySearchTree, laid out for lookups
+ * rather than for updates. It is created by {@link BinarySearchTree#freeze()} once a tree is loaded
+ * and then serves find, range, prefix and top-k queries without touching a single tree node.
+ * <p>
+ * The search tree is stored in Eytzinger order: the node at index k has its children at 2k and 2k + 1,
+ * so the implicit tree is perfectly balanced and a search walks down an array instead of following
+ * pointers. The packed key prefixes of all nodes sit in one long array, eight to a cache line, with
+ * the top levels of the tree sharing the first few lines; a search compares prefixes and only loads
+ * the full name when two prefixes are equal. Names, records and happiness indices are kept in
+ * parallel arrays, in Eytzinger order for find and in sorted order for ranges, and the records are
+ * also kept sorted by happiness so that top-k queries are array copies.
+ * <p>
+ * Later changes to the tree the copy was made from are not reflected in it.
+ */
+
+public final class FrozenTree implements Iterable<Country> {
+    private final int size; // Number of countries.
+    private final boolean normalizedKeys; // Whether names are ordered ignoring case and accents.
+
+    private final long[] prefixes; // Packed key prefix per Eytzinger index, index 0 unused.
+    private final String[] keys; // Sort key per Eytzinger index, index 0 unused.
+    private final double[] happiness; // Happiness index per Eytzinger index, index 0 unused.
+    private final int[] ranks; // Alphabetical position per Eytzinger index, index 0 unused.
+
+    private final Country[] sorted; // Countries in alphabetical order.
+    private final String[] sortedKeys; // Sort keys in alphabetical order.
+    private final Country[] byHappiness; // Countries by ascending happiness, ties by name.
+
+    /**
+     * Constructor to create a frozen copy from the nodes of a tree.
+     *
+     * @param nodes          The nodes of the tree in alphabetical order.
+     * @param byHappiness    The countries of the tree by ascending happiness, as the happiness index orders them.
+     * @param normalizedKeys true if the tree orders names ignoring case and accents.
+     */
+    
+    FrozenTree(Node[] nodes, Country[] byHappiness, boolean normalizedKeys) {
+        this.size = nodes.length;
+        this.normalizedKeys = normalizedKeys;
+        this.prefixes = new long[size + 1];
+        this.keys = new String[size + 1];
+        this.happiness = new double[size + 1];
+        this.ranks = new int[size + 1];
+        this.sorted = new Country[size];
+        this.sortedKeys = new String[size];
+        this.byHappiness = byHappiness;
+        for (int i = 0; i < size; i++) {
+            sorted[i] = nodes[i].getCountry();
+            sortedKeys[i] = nodes[i].getSortKey();
+        }
+        layout(nodes, 1, 0);
+    }
+
+    /**
+     * A helper method to fill the Eytzinger arrays with an inorder walk of the implicit tree, which
+     * visits the indices in the order of their alphabetical positions.
+     *
+     * @param nodes The nodes in alphabetical order.
+     * @param index The Eytzinger index of the subtree to fill.
+     * @param rank  The alphabetical position of the first node of the subtree.
+     * @return The alphabetical position following the subtree.
+     */
+    
+    private int layout(Node[] nodes, int index, int rank) {
+        if (index > size) {
+            return rank;
+        }
+        rank = layout(nodes, 2 * index, rank);
+        prefixes[index] = nodes[rank].getKeyPrefix();
+        keys[index] = nodes[rank].getSortKey();
+        happiness[index] = nodes[rank].getHappiness();
+        ranks[index] = rank;
+        return layout(nodes, 2 * index + 1, rank + 1);
+    }
+
+    /**
+     * Get the number of countries.
+     *
+     * @return The number of countries.
+     */
+    
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the happiness index of a country based on its name.
+     *
+     * @param name The name of the country to search for.
+     * @return The happiness index of the country, or -1 if the country is not found.
+     */
+    
+    public double find(String name) {
+        int index = indexOf(sortKey(name));
+        return index == 0 ? -1 : happiness[index]; // -1 means country not found.
+    }
+
+    /**
+     * Find the full record of a country based on its name.
+     *
+     * @param name The name of the country to search for.
+     * @return The country record, or null if the country is not found.
+     */
+    
+    public Country findCountry(String name) {
+        int index = indexOf(sortKey(name));
+        return index == 0 ? null : sorted[ranks[index]];
+    }
+
+    /**
+     * Get the countries whose names fall between two bounds, both inclusive, in alphabetical order.
+     *
+     * @param from The lowest name to include.
+     * @param to   The highest name to include.
+     * @return The countries in the range.
+     */
+    
+    public Iterable<Country> range(String from, String to) {
+        int first = rankOf(sortKey(from), true);
+        int end = Math.max(first, rankOf(sortKey(to), false));
+        return () -> Arrays.asList(sorted).subList(first, end).iterator();
+    }
+
+    /**
+     * Get the countries whose names start with the given prefix, in alphabetical order.
+     *
+     * @param prefix The prefix the country names must start with.
+     * @return The countries with the prefix.
+     */
+    
+    public Iterable<Country> prefix(String prefix) {
+        String prefixKey = sortKey(prefix);
+        int first = rankOf(prefixKey, true);
+        int end = first;
+        while (end < size && sortedKeys[end].startsWith(prefixKey)) {
+            end++;
+        }
+        int last = end;
+        return () -> Arrays.asList(sorted).subList(first, last).iterator();
+    }
+
+    /**
+     * Iterate over all countries in alphabetical order.
+     *
+     * @return An iterator over the countries.
+     */
+    
+    @Override
+    public Iterator<Country> iterator() {
+        return Arrays.asList(sorted).iterator();
+    }
+
+    /**
+     * Get a list of the top countries based on their happiness indices.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return An array of country names representing the top countries by happiness in descending order.
+     */
+    
+    public String[] getTopCountries(int count) {
+        return namesOf(getTopCountryEntries(count));
+    }
+
+    /**
+     * Get the top countries based on their happiness indices, together with their happiness.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return The top countries by happiness in descending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getTopCountryEntries(int count) {
+        Country[] result = new Country[Math.max(0, Math.min(count, size))];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = byHappiness[size - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * Get a list of the bottom countries based on their happiness indices.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return An array of country names representing the bottom countries by happiness in ascending order.
+     */
+    
+    public String[] getBottomCountries(int count) {
+        return namesOf(getBottomCountryEntries(count));
+    }
+
+    /**
+     * Get the bottom countries based on their happiness indices, together with their happiness.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return The bottom countries by happiness in ascending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getBottomCountryEntries(int count) {
+        return Arrays.copyOf(byHappiness, Math.max(0, Math.min(count, size)));
+    }
+
+    /**
+     * A helper method to find the Eytzinger index of a sort key.
+     *
+     * @param key The sort key.
+     * @return The index holding the key, or 0 if the key is not present.
+     */
+    
+    private int indexOf(String key) {
+        long prefix = SortKeys.prefixOf(key);
+        int index = 1;
+        while (index <= size) {
+            int compareResult = compare(key, prefix, index);
+
+            if (compareResult == 0) {
+                return index;
+            }
+            index = 2 * index + (compareResult > 0 ? 1 : 0);
+        }
+        return 0;
+    }
+
+    /**
+     * A helper method to find the alphabetical position of the first key at or after a sort key. The
+     * search always runs to the bottom of the implicit tree; the index it falls out at encodes the path
+     * taken, and dropping the trailing right turns and the last left turn gives the node where the
+     * search last went left, which is the bound.
+     *
+     * @param key       The sort key.
+     * @param inclusive true to stop at a key equal to the given key, false to go past it.
+     * @return The position of the bound, or size() if every key is before it.
+     */
+    
+    private int rankOf(String key, boolean inclusive) {
+        long prefix = SortKeys.prefixOf(key);
+        int index = 1;
+        while (index <= size) {
+            int compareResult = compare(key, prefix, index);
+            index = 2 * index + (compareResult > 0 || (compareResult == 0 && !inclusive) ? 1 : 0);
+        }
+        index >>>= Integer.numberOfTrailingZeros(~index) + 1;
+        return index == 0 ? size : ranks[index];
+    }
+
+    // Helper method to compare a sort key with the key at an Eytzinger index, prefixes first.
+    private int compare(String key, long prefix, int index) {
+        int compareResult = Long.compareUnsigned(prefix, prefixes[index]);
+        return compareResult != 0 ? compareResult : key.compareTo(keys[index]);
+    }
+
+    // Helper method to get the key a name is ordered by, as in the tree the copy was made from.
+    private String sortKey(String name) {
+        return normalizedKeys ? SortKeys.normalize(name) : name;
+    }
+
+    // Helper method to get the names of some countries.
+    private static String[] namesOf(Country[] countries) {
+        String[] names = new String[countries.length];
+        for (int i = 0; i < countries.length; i++) {
+            names[i] = countries[i].getCountryName();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,206 @@
+package bst;
+
+import java.util.Arrays;
+
+/**
+ * The HappinessIndex class is a secondary, always balanced tree over the same countries as a
+ * BinarySearchTree, ordered by happiness index and then by name. The owning tree keeps it in sync
+ * on insert and delete so that the happiest and least happy countries can be read off its ends.
+ * Its nodes only hold the country record: the sort keys and happiness aggregates of the country
+ * tree's nodes are not needed here.
+ */
+
+class HappinessIndex extends KeyedTree<Country, HappinessIndex.Entry> {
+
+    /**
+     * Constructor to create an empty happiness index.
+     */
+    
+    HappinessIndex() {
+        super(true, HappinessIndex::compare);
+    }
+
+    @Override
+    Country keyOf(Entry node) {
+        return node.getCountry();
+    }
+
+    /**
+     * Fill an empty index with countries given in the owning tree's order.
+     *
+     * @param countries The country records, sorted by the tree's sort key and without duplicates.
+     * @param count     The number of records to use.
+     */
+    
+    void buildFromNameOrder(Country[] countries, int count) {
+        // Sort by the full index order: with normalized keys the tree's order is not the order of the
+        // raw names the index breaks ties on, so a stable sort by happiness alone is not enough.
+        Country[] ordered = Arrays.copyOf(countries, count);
+        Arrays.sort(ordered, HappinessIndex::compare);
+        build(ordered, count, Entry::new);
+    }
+
+    /**
+     * Add a country to the index.
+     *
+     * @param country The country record.
+     */
+    
+    void insert(Country country) {
+        insertNode(new Entry(country));
+    }
+
+    /**
+     * Remove a country from the index.
+     *
+     * @param country The country record, as it was indexed.
+     */
+    
+    void delete(Country country) {
+        Entry node = findNode(country);
+        if (node != null) {
+            deleteNode(node);
+        }
+    }
+
+    /**
+     * Get the countries with the highest happiness, walking backwards from the maximum.
+     *
+     * @param count The number of countries to retrieve.
+     * @return The countries in descending order of happiness.
+     */
+    
+    Country[] highest(int count) {
+        Country[] result = new Country[Math.max(0, Math.min(count, size(root)))];
+        Entry current = root == null ? null : maxValueNode(root);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = current.getCountry();
+            current = predecessor(current);
+        }
+        return result;
+    }
+
+    /**
+     * Get the countries with the lowest happiness, walking forwards from the minimum.
+     *
+     * @param count The number of countries to retrieve.
+     * @return The countries in ascending order of happiness.
+     */
+    
+    Country[] lowest(int count) {
+        Country[] result = new Country[Math.max(0, Math.min(count, size(root)))];
+        Entry current = root == null ? null : minValueNode(root);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = current.getCountry();
+            current = successor(current);
+        }
+        return result;
+    }
+
+    /**
+     * Count the countries with a happiness index below a score, descending once and adding up the
+     * sizes of the subtrees left behind on the way.
+     *
+     * @param score     The score to compare against.
+     * @param inclusive true to also count countries with exactly this score.
+     * @return The number of countries below (or at, if inclusive) the score.
+     */
+    
+    int countBelow(double score, boolean inclusive) {
+        int count = 0;
+        Entry current = root;
+        while (current != null) {
+            int compareResult = Double.compare(current.getHappiness(), score);
+            if (compareResult < 0 || (compareResult == 0 && inclusive)) {
+                count += size(current.getLeft()) + 1;
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the node with the k-th lowest happiness using the subtree sizes.
+     *
+     * @param k The zero-based position, between 0 and the number of countries - 1.
+     * @return The node at that position.
+     */
+    
+    Entry nodeAt(int k) {
+        Entry current = root;
+        while (true) {
+            int leftSize = size(current.getLeft());
+            if (k < leftSize) {
+                current = current.getLeft();
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                current = current.getRight();
+            } else {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * A helper method to order two countries the way the index does, by happiness and then name.
+     *
+     * @param country The country to compare.
+     * @param other   The country to compare against.
+     * @return A negative, zero or positive number as the country orders before, at or after the other.
+     */
+    
+    private static int compare(Country country, Country other) {
+        int compareResult = Double.compare(country.getHappiness(), other.getHappiness());
+        return compareResult != 0 ? compareResult : country.getCountryName().compareTo(other.getCountryName());
+    }
+
+    /**
+     * The Entry class is a node of the index holding a country record.
+     */
+    
+    static final class Entry extends TreeNode<Entry> {
+        private final Country country; // The country record, shared with the country tree.
+
+        /**
+         * Constructor to create a new entry.
+         *
+         * @param country The country record.
+         */
+        
+        Entry(Country country) {
+            this.country = country;
+        }
+
+        /**
+         * Get the country record of the entry.
+         *
+         * @return The country record.
+         */
+        
+        Country getCountry() {
+            return country;
+        }
+
+        /**
+         * Get the happiness index of the country of the entry.
+         *
+         * @return The happiness index.
+         */
+        
+        double getHappiness() {
+            return country.getHappiness();
+        }
+
+        /**
+         * Get the name of the country of the entry.
+         *
+         * @return The name of the country.
+         */
+        
+        String getCountryName() {
+            return country.getCountryName();
+        }
+    }
+}
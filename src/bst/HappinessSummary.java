@@ -0,0 +1,144 @@
+package bst;
+
+/**
+ * The HappinessSummary class holds count, sum, sum of squares, minimum and maximum of the happiness
+ * indices of a set of countries, and the mean and variance derived from them. Trees assemble it from
+ * the subtree aggregates of a few nodes instead of visiting every country.
+ */
+
+public final class HappinessSummary {
+    private long count; // Number of countries.
+    private double sum; // Sum of the happiness indices.
+    private double sumOfSquares; // Sum of the squared happiness indices.
+    private double min = Double.POSITIVE_INFINITY; // Lowest happiness index.
+    private double max = Double.NEGATIVE_INFINITY; // Highest happiness index.
+
+    /**
+     * Constructor to create an empty summary; trees fill it through their range queries.
+     */
+    
+    HappinessSummary() {
+    }
+
+    /**
+     * Add the country of a single node, without its subtree.
+     *
+     * @param node The node.
+     */
+    
+    void addNode(Node node) {
+        double happiness = node.getHappiness();
+        count++;
+        sum += happiness;
+        sumOfSquares += happiness * happiness;
+        min = Math.min(min, happiness);
+        max = Math.max(max, happiness);
+    }
+
+    /**
+     * Add every country of a subtree from the aggregates of its root.
+     *
+     * @param node The root of the subtree, may be null.
+     */
+    
+    void addSubtree(Node node) {
+        if (node == null) {
+            return;
+        }
+        count += node.getSize();
+        sum += node.getHappinessSum();
+        sumOfSquares += node.getHappinessSquares();
+        min = Math.min(min, node.getMinHappiness());
+        max = Math.max(max, node.getMaxHappiness());
+    }
+
+    /**
+     * Get the number of countries.
+     *
+     * @return The count.
+     */
+    
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the sum of the happiness indices.
+     *
+     * @return The sum, 0 if there are no countries.
+     */
+    
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Get the sum of the squared happiness indices.
+     *
+     * @return The sum of squares, 0 if there are no countries.
+     */
+    
+    public double getSumOfSquares() {
+        return sumOfSquares;
+    }
+
+    /**
+     * Get the lowest happiness index.
+     *
+     * @return The minimum, positive infinity if there are no countries.
+     */
+    
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Get the highest happiness index.
+     *
+     * @return The maximum, negative infinity if there are no countries.
+     */
+    
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the mean happiness index.
+     *
+     * @return The mean, 0 if there are no countries.
+     */
+    
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Get the population variance of the happiness indices.
+     *
+     * @return The variance, 0 if there are no countries.
+     */
+    
+    public double getVariance() {
+        if (count == 0) {
+            return 0;
+        }
+        double mean = sum / count;
+        return Math.max(0, sumOfSquares / count - mean * mean); // Rounding can push it just below zero.
+    }
+
+    /**
+     * Get the population standard deviation of the happiness indices.
+     *
+     * @return The standard deviation, 0 if there are no countries.
+     */
+    
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d sum=%.3f min=%.3f max=%.3f mean=%.3f stddev=%.3f",
+                count, sum, min, max, getMean(), getStandardDeviation());
+    }
+}
@@ -0,0 +1,130 @@
+package bst;
+
+import java.util.Arrays;
+
+/**
+ * The HotKeyCache class is a small, bounded, direct-mapped cache from sort keys to the nodes holding
+ * them. Each key can only live in the slot picked by its hash, so a lookup is one array probe and a new
+ * entry simply replaces whatever occupied its slot. Skewed workloads keep their few hot keys in the
+ * cache, and the owning tree invalidates entries whose node no longer holds the key.
+ */
+
+class HotKeyCache {
+    private static final int MAX_SLOTS = 1 << 30; // Largest power of two that fits an array length.
+
+    private final String[] keys; // Cached sort keys, null for empty slots.
+    private final Node[] nodes; // Node holding the key in the same slot.
+    private final int mask; // Number of slots minus one; the number of slots is a power of two.
+    private long hits; // Number of lookups answered from the cache.
+    private long misses; // Number of lookups that had to search the tree.
+
+    /**
+     * Constructor to create an empty cache.
+     *
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    
+    HotKeyCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        int slots = Integer.highestOneBit(Math.min(capacity, MAX_SLOTS));
+        if (slots < capacity && slots < MAX_SLOTS) {
+            slots <<= 1;
+        }
+        this.keys = new String[slots];
+        this.nodes = new Node[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Look up the node of a key, counting the lookup as a hit or a miss.
+     *
+     * @param key The sort key.
+     * @return The cached node, or null if the key is not cached.
+     */
+    
+    Node get(String key) {
+        int slot = slot(key);
+        String cached = keys[slot];
+        if (cached != null && cached.equals(key)) {
+            hits++;
+            return nodes[slot];
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Cache the node of a key, replacing the entry in its slot.
+     *
+     * @param key  The sort key.
+     * @param node The node holding the key.
+     */
+    
+    void put(String key, Node node) {
+        int slot = slot(key);
+        keys[slot] = key;
+        nodes[slot] = node;
+    }
+
+    /**
+     * Drop a key from the cache if it is cached.
+     *
+     * @param key The sort key.
+     */
+    
+    void invalidate(String key) {
+        int slot = slot(key);
+        String cached = keys[slot];
+        if (cached != null && cached.equals(key)) {
+            keys[slot] = null;
+            nodes[slot] = null;
+        }
+    }
+
+    /**
+     * Drop every entry, keeping the hit and miss counters.
+     */
+    
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(nodes, null);
+    }
+
+    /**
+     * Get the number of slots of the cache.
+     *
+     * @return The capacity.
+     */
+    
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Get the number of lookups answered from the cache.
+     *
+     * @return The hit count.
+     */
+    
+    long hits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that were not answered from the cache.
+     *
+     * @return The miss count.
+     */
+    
+    long misses() {
+        return misses;
+    }
+
+    // Helper method to pick the slot of a key, mixing the high bits of the hash into the low ones.
+    private int slot(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
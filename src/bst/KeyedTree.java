@@ -0,0 +1,143 @@
+package bst;
+
+import java.util.Comparator;
+
+/**
+ * The KeyedTree class adds comparator-driven search, insert and delete to the linked structure of
+ * NodeTree. Subclasses only say how to read the key of a node; the value they store alongside the key
+ * is up to them, so primitive values need no boxing. Entries never move between nodes, so a node keeps
+ * its key and value for as long as it is in the tree.
+ *
+ * @param <K> The type of the keys.
+ * @param <N> The type of the nodes of the tree.
+ */
+
+abstract class KeyedTree<K, N extends TreeNode<N>> extends NodeTree<N> {
+    final Comparator<? super K> comparator; // The order of the keys.
+
+    /**
+     * Constructor to create an empty tree.
+     *
+     * @param balanced   true to rebalance on every insert and delete, false for a plain BST.
+     * @param comparator The order of the keys.
+     */
+    
+    KeyedTree(boolean balanced, Comparator<? super K> comparator) {
+        super(balanced);
+        this.comparator = comparator;
+    }
+
+    /**
+     * A helper method to get the key stored in a node.
+     *
+     * @param node The node.
+     * @return The key of the node.
+     */
+    
+    abstract K keyOf(N node);
+
+    /**
+     * A helper method to find the node holding a key by walking down from the root.
+     *
+     * @param key The key to find.
+     * @return The node of the key, or null if the key is not found.
+     */
+    
+    N findNode(K key) {
+        N current = root;
+        while (current != null) {
+            int compareResult = comparator.compare(key, keyOf(current));
+
+            if (compareResult == 0) {
+                return current;
+            }
+            current = compareResult < 0 ? current.getLeft() : current.getRight();
+        }
+        return null;
+    }
+
+    /**
+     * A helper method to find where a key is or would be inserted.
+     *
+     * @param key The key to search for.
+     * @return The node holding the key, or the node below which it would be attached; null if the tree is empty.
+     */
+    
+    N searchNode(K key) {
+        N current = root;
+        while (current != null) {
+            int compareResult = comparator.compare(key, keyOf(current));
+
+            if (compareResult == 0) {
+                return current;
+            }
+            N next = compareResult < 0 ? current.getLeft() : current.getRight();
+            if (next == null) {
+                return current;
+            }
+            current = next;
+        }
+        return null;
+    }
+
+    /**
+     * A helper method to insert a node unless its key is already present. The descent is iterative and
+     * heights and subtree sizes are then refreshed bottom-up along the parent links.
+     *
+     * @param node The new node.
+     * @return true if the node was inserted, false if the key was already present.
+     */
+    
+    boolean insertNode(N node) {
+        K key = keyOf(node);
+        N parent = null;
+        N current = root;
+        int compareResult = 0;
+        while (current != null) {
+            compareResult = comparator.compare(key, keyOf(current));
+
+            if (compareResult == 0) {
+                return false; // Duplicate key, nothing changed.
+            }
+            parent = current;
+            current = compareResult < 0 ? current.getLeft() : current.getRight();
+        }
+
+        attach(parent, node, compareResult < 0);
+        return true;
+    }
+
+    /**
+     * A helper method to delete a node of the tree. A node with two children is replaced by its inorder
+     * successor: the walk continues from the node down to the leftmost node of its right subtree, the
+     * successor is detached there and relinked into the place of the deleted node. No key or value is
+     * copied, so whatever a node holds stays with it, and the successor is never searched for again.
+     *
+     * @param node The node to delete.
+     */
+    
+    void deleteNode(N node) {
+        if (node.getLeft() == null || node.getRight() == null) {
+            // Node with only one child or no child
+            unlink(node);
+        } else {
+            // Node with two children, get the inorder successor
+            N successor = minValueNode(node.getRight());
+            N lowest = successor; // Lowest node whose subtree changed.
+            if (successor != node.getRight()) {
+                lowest = successor.getParent();
+                replaceChild(lowest, successor, successor.getRight());
+                successor.setRight(node.getRight());
+                node.getRight().setParent(successor);
+            }
+            successor.setLeft(node.getLeft());
+            node.getLeft().setParent(successor);
+            replaceChild(node.getParent(), node, successor);
+            modCount++;
+            retrace(lowest);
+        }
+        node.setLeft(null);
+        node.setRight(null);
+        node.setParent(null);
+    }
+}
@@ -0,0 +1,154 @@
+package bst;
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * The LongValueTree class is a self-balancing (AVL) tree mapping keys in comparator order to primitive
+ * long values. Values are stored in the nodes unboxed, so lookups and updates allocate nothing and
+ * an insert allocates only its node.
+ *
+ * @param <K> The type of the keys.
+ */
+
+public class LongValueTree<K> extends KeyedTree<K, LongValueTree.Entry<K>> {
+
+    /**
+     * Constructor to create an empty tree.
+     *
+     * @param comparator The order of the keys.
+     */
+    
+    public LongValueTree(Comparator<? super K> comparator) {
+        super(true, comparator);
+    }
+
+    @Override
+    K keyOf(Entry<K> node) {
+        return node.key;
+    }
+
+    /**
+     * Associate a value with a key, replacing the value if the key is already present.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return true if the key was added, false if an existing value was replaced.
+     */
+    
+    public boolean put(K key, long value) {
+        Entry<K> node = searchNode(key);
+        if (node != null) {
+            int compareResult = comparator.compare(key, node.key);
+
+            if (compareResult == 0) {
+                node.value = value;
+                return false;
+            }
+            attach(node, new Entry<>(key, value), compareResult < 0);
+        } else {
+            attach(null, new Entry<>(key, value), false);
+        }
+        return true;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key          The key to search for.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The value of the key, or defaultValue if the key is not found.
+     */
+    
+    public long get(K key, long defaultValue) {
+        Entry<K> node = findNode(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    /**
+     * Check whether a key is present.
+     *
+     * @param key The key to search for.
+     * @return true if the key is present.
+     */
+    
+    public boolean containsKey(K key) {
+        return findNode(key) != null;
+    }
+
+    /**
+     * Remove a key and its value.
+     *
+     * @param key The key to remove.
+     * @return true if the key was present.
+     */
+    
+    public boolean remove(K key) {
+        Entry<K> node = findNode(key);
+        if (node == null) {
+            return false;
+        }
+        deleteNode(node);
+        return true;
+    }
+
+    /**
+     * Get the number of keys in the tree.
+     *
+     * @return The number of keys.
+     */
+    
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Get the height of the tree, i.e. the number of nodes on the longest root-to-leaf path.
+     *
+     * @return The height of the tree, 0 if it is empty.
+     */
+    
+    public int getHeight() {
+        return height(root);
+    }
+
+    /**
+     * Pass every key and its value to an action, in key order.
+     *
+     * @param action The action to run for each entry.
+     */
+    
+    public void forEach(ObjLongConsumer<? super K> action) {
+        int expectedModCount = modCount;
+        for (Entry<K> node = root == null ? null : minValueNode(root); node != null; node = successor(node)) {
+            action.accept(node.key, node.value);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * The Entry class is a node of the tree holding a key and its unboxed value.
+     *
+     * @param <K> The type of the key.
+     */
+    
+    static final class Entry<K> extends TreeNode<Entry<K>> {
+        private final K key; // The key of the entry.
+        private long value; // The value of the entry.
+
+        /**
+         * Constructor to create a new entry.
+         *
+         * @param key   The key.
+         * @param value The value.
+         */
+        
+        Entry(K key, long value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
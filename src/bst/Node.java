@@ -1,10 +1,13 @@
 package bst;
 
-public class Node {
-    private String countryName; // The name of the country.
-    private double happiness; // The happiness index of the country.
-    private Node left; // Reference to the left child node.
-    private Node right; // Reference to the right child node.
+public class Node extends TreeNode<Node> {
+    private Country country; // The full record of the country, shared with secondary indexes.
+    private String sortKey; // The key the country tree orders this node by, usually the name.
+    private long keyPrefix; // The packed prefix of the sort key, compared before the full key.
+    private double happinessSum; // Sum of the happiness indices in the subtree rooted at this node.
+    private double happinessSquares; // Sum of the squared happiness indices in the subtree.
+    private double minHappiness; // Lowest happiness index in the subtree.
+    private double maxHappiness; // Highest happiness index in the subtree.
 
     /**
      * Constructor to create a new Node with the specified country name and happiness index.
@@ -14,10 +17,28 @@ public class Node {
      */
     
     public Node(String countryName, double happiness) {
-        this.countryName = countryName;
-        this.happiness = happiness;
-        this.left = null;
-        this.right = null;
+        this(new Country(countryName, happiness));
+    }
+
+    /**
+     * Constructor to create a new Node holding a full country record.
+     *
+     * @param country The country record.
+     */
+    
+    public Node(Country country) {
+        this(country, country.getCountryName());
+    }
+
+    /**
+     * Constructor to create a new Node holding a full country record under a given sort key.
+     *
+     * @param country The country record.
+     * @param sortKey The key the node is ordered by.
+     */
+    
+    Node(Country country, String sortKey) {
+        setCountry(country, sortKey);
     }
 
 	/**
@@ -25,8 +46,18 @@ public class Node {
      */
     
     public void print() {
-        System.out.println("Name: " + countryName);
-        System.out.println("Happiness: " + happiness);
+        System.out.println("Name: " + country.getCountryName());
+        System.out.println("Happiness: " + country.getHappiness());
+    }
+
+    /**
+     * Get the full record of the country stored in this node.
+     *
+     * @return The country record.
+     */
+    
+    public Country getCountry() {
+        return country;
     }
 
     /**
@@ -36,7 +67,7 @@ public class Node {
      */
     
     public String getCountryName() {
-        return countryName;
+        return country.getCountryName();
     }
 
     /**
@@ -46,57 +77,146 @@ public class Node {
      */
     
     public double getHappiness() {
-        return happiness;
+        return country.getHappiness();
     }
 
     /**
-     * Get the reference to the left child node.
+     * Set the country name of the node.
      *
-     * @return The left child node.
+     * @param countryName The country name to set.
      */
     
-    public Node getLeft() {
-        return left;
+    public void setCountryName(String countryName) {
+        setCountry(new Country(countryName, country.getCapital(), country.getPopulation(),
+                country.getGdp(), country.getArea(), country.getHappiness()));
     }
 
     /**
-     * Get the reference to the right child node.
+     * Set the full country record of the node, ordered by its name. The happiness aggregates of the
+     * node are refreshed but those of its ancestors are not, so it should not be used on a node inside a tree.
      *
-     * @return The right child node.
+     * @param country The country record to set.
      */
     
-    public Node getRight() {
-        return right;
+    public void setCountry(Country country) {
+        setCountry(country, country.getCountryName());
     }
 
     /**
-     * Set the left child node.
+     * Set the full country record of the node and the key it is ordered by.
      *
-     * @param node The left child node to set.
+     * @param country The country record to set.
+     * @param sortKey The key the node is ordered by.
      */
     
-    public void setLeft(Node node) {
-        left = node;
+    void setCountry(Country country, String sortKey) {
+        this.country = country;
+        this.sortKey = sortKey;
+        this.keyPrefix = SortKeys.prefixOf(sortKey);
+        updateAggregates();
     }
 
     /**
-     * Set the right child node.
+     * Get the key the country tree orders this node by.
      *
-     * @param node The right child node to set.
+     * @return The sort key, the country name unless the tree uses normalized keys.
      */
     
-    public void setRight(Node node) {
-        right = node;
+    String getSortKey() {
+        return sortKey;
     }
 
     /**
-     * Set the country name of the node.
+     * Get the packed prefix of the sort key.
      *
-     * @param countryName The country name to set.
+     * @return The key prefix.
      */
     
-    public void setCountryName(String countryName) {
-        this.countryName = countryName;
+    long getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    /**
+     * Recompute the happiness aggregates of the subtree rooted at this node from its own record and
+     * the aggregates of its children, writing only the ones whose value changed. The subtree count is
+     * the subtree size.
+     */
+    
+    @Override
+    void updateAggregates() {
+        double happiness = country.getHappiness();
+        double sum = happiness;
+        double squares = happiness * happiness;
+        double min = happiness;
+        double max = happiness;
+        Node left = getLeft();
+        if (left != null) {
+            sum += left.happinessSum;
+            squares += left.happinessSquares;
+            min = Math.min(min, left.minHappiness);
+            max = Math.max(max, left.maxHappiness);
+        }
+        Node right = getRight();
+        if (right != null) {
+            sum += right.happinessSum;
+            squares += right.happinessSquares;
+            min = Math.min(min, right.minHappiness);
+            max = Math.max(max, right.maxHappiness);
+        }
+        // Like height and size in NodeTree.update, only write what changed: min and max rarely do above
+        // the changed node, so most retrace steps leave those fields untouched.
+        if (happinessSum != sum) {
+            happinessSum = sum;
+        }
+        if (happinessSquares != squares) {
+            happinessSquares = squares;
+        }
+        if (minHappiness != min) {
+            minHappiness = min;
+        }
+        if (maxHappiness != max) {
+            maxHappiness = max;
+        }
+    }
+
+    /**
+     * Get the sum of the happiness indices in the subtree rooted at this node.
+     *
+     * @return The subtree happiness sum.
+     */
+    
+    double getHappinessSum() {
+        return happinessSum;
+    }
+
+    /**
+     * Get the sum of the squared happiness indices in the subtree rooted at this node.
+     *
+     * @return The subtree sum of squares.
+     */
+    
+    double getHappinessSquares() {
+        return happinessSquares;
+    }
+
+    /**
+     * Get the lowest happiness index in the subtree rooted at this node.
+     *
+     * @return The subtree minimum.
+     */
+    
+    double getMinHappiness() {
+        return minHappiness;
+    }
+
+    /**
+     * Get the highest happiness index in the subtree rooted at this node.
+     *
+     * @return The subtree maximum.
+     */
+    
+    double getMaxHappiness() {
+        return maxHappiness;
     }
 
 
@@ -0,0 +1,320 @@
+package bst;
+
+import java.util.function.Function;
+
+/**
+ * The NodeTree class holds the linked structure shared by the trees of this package: the root,
+ * parent-linked nodes with cached heights and subtree sizes, and the AVL rotations that keep
+ * a balanced tree's height logarithmic. Subclasses decide how keys are ordered.
+ *
+ * @param <N> The type of the nodes of the tree.
+ */
+
+abstract class NodeTree<N extends TreeNode<N>> {
+    N root; // The root node of the tree.
+    final boolean balanced; // Whether insert/delete rebalance the tree (AVL).
+    int modCount; // Number of structural changes, used to detect modification during iteration.
+
+    /**
+     * Constructor to create an empty tree.
+     *
+     * @param balanced true to rebalance on every insert and delete, false for a plain BST.
+     */
+    
+    NodeTree(boolean balanced) {
+        this.root = null;
+        this.balanced = balanced;
+    }
+
+    /**
+     * A helper method to replace the contents of an empty tree with a perfectly balanced tree built
+     * from entries already in key order, in O(n) without comparisons or rotations.
+     *
+     * @param entries The entries, in the order of this tree.
+     * @param count   The number of entries to use.
+     * @param newNode Creates the node holding an entry.
+     * @param <T>     The type of the entries.
+     */
+    
+    <T> void build(T[] entries, int count, Function<? super T, N> newNode) {
+        if (root != null) {
+            throw new IllegalStateException("Bulk build requires an empty tree.");
+        }
+        root = build(entries, 0, count, null, newNode);
+        modCount++;
+    }
+
+    /**
+     * A helper method to remove every node of the tree at once.
+     */
+    
+    void clear() {
+        root = null;
+        modCount++;
+    }
+
+    // Helper method to build the subtree over entries[from, to) below a parent.
+    private <T> N build(T[] entries, int from, int to, N parent, Function<? super T, N> newNode) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        N node = newNode.apply(entries[middle]);
+        node.setParent(parent);
+        node.setLeft(build(entries, from, middle, node, newNode));
+        node.setRight(build(entries, middle + 1, to, node, newNode));
+        update(node);
+        return node;
+    }
+
+    /**
+     * A helper method to link a new leaf below a parent and refresh the path above it.
+     *
+     * @param parent The parent node, or null if the tree is empty.
+     * @param node   The new leaf node.
+     * @param left   true to attach the node as the left child, false for the right child.
+     */
+    
+    void attach(N parent, N node, boolean left) {
+        node.setParent(parent);
+        if (parent == null) {
+            root = node;
+        } else if (left) {
+            parent.setLeft(node);
+        } else {
+            parent.setRight(node);
+        }
+        modCount++;
+        retrace(parent);
+    }
+
+    /**
+     * A helper method to unlink a node that has at most one child and refresh the path above it.
+     *
+     * @param node The node to remove.
+     */
+    
+    void unlink(N node) {
+        N child = node.getLeft() != null ? node.getLeft() : node.getRight();
+        N parent = node.getParent();
+        replaceChild(parent, node, child);
+        modCount++;
+        retrace(parent);
+    }
+
+    /**
+     * A helper method to make a parent point to a new child in place of an old one.
+     *
+     * @param parent   The parent node, or null if the old child is the root.
+     * @param oldChild The child being replaced.
+     * @param newChild The replacement child, may be null.
+     */
+    
+    void replaceChild(N parent, N oldChild, N newChild) {
+        if (parent == null) {
+            root = newChild;
+        } else if (parent.getLeft() == oldChild) {
+            parent.setLeft(newChild);
+        } else {
+            parent.setRight(newChild);
+        }
+        if (newChild != null) {
+            newChild.setParent(parent);
+        }
+    }
+
+    /**
+     * A helper method to walk up from a node whose subtree changed to the root, refreshing heights
+     * and subtree sizes and, when the tree is self-balancing, restoring the AVL invariant.
+     *
+     * @param node The lowest node whose subtree changed.
+     */
+    
+    void retrace(N node) {
+        while (node != null) {
+            N parent = node.getParent();
+            N subtree = balanced ? rebalance(node) : node;
+            update(subtree);
+            node = parent;
+        }
+    }
+    
+    /**
+     * A helper method to get the height of a possibly empty subtree.
+     *
+     * @param node The root node of the subtree, may be null.
+     * @return The height of the subtree, 0 if it is empty.
+     */
+    
+    static int height(TreeNode<?> node) {
+        return node == null ? 0 : node.getHeight();
+    }
+
+    /**
+     * A helper method to get the number of nodes in a possibly empty subtree.
+     *
+     * @param node The root node of the subtree, may be null.
+     * @return The size of the subtree, 0 if it is empty.
+     */
+    
+    static int size(TreeNode<?> node) {
+        return node == null ? 0 : node.getSize();
+    }
+
+    /**
+     * A helper method to recompute the height, subtree size and any subtree aggregates of a node
+     * from its children. Height and size are only written when their value actually changes.
+     *
+     * @param node The node to update.
+     */
+    
+    static void update(TreeNode<?> node) {
+        int height = 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+        if (node.getHeight() != height) {
+            node.setHeight(height);
+        }
+        int size = 1 + size(node.getLeft()) + size(node.getRight());
+        if (node.getSize() != size) {
+            node.setSize(size);
+        }
+        node.updateAggregates();
+    }
+
+    /**
+     * A helper method to rotate a subtree to the right around its root.
+     *
+     * @param node The root of the subtree; its left child becomes the new root.
+     * @return The new root of the subtree.
+     */
+    
+    N rotateRight(N node) {
+        N pivot = node.getLeft();
+        N inner = pivot.getRight();
+        node.setLeft(inner);
+        if (inner != null) {
+            inner.setParent(node);
+        }
+        replaceChild(node.getParent(), node, pivot);
+        pivot.setRight(node);
+        node.setParent(pivot);
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * A helper method to rotate a subtree to the left around its root.
+     *
+     * @param node The root of the subtree; its right child becomes the new root.
+     * @return The new root of the subtree.
+     */
+    
+    N rotateLeft(N node) {
+        N pivot = node.getRight();
+        N inner = pivot.getLeft();
+        node.setRight(inner);
+        if (inner != null) {
+            inner.setParent(node);
+        }
+        replaceChild(node.getParent(), node, pivot);
+        pivot.setLeft(node);
+        node.setParent(pivot);
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * A helper method to restore the AVL invariant at a node with at most two rotations.
+     *
+     * @param node The root of the changed subtree.
+     * @return The root of the subtree after rebalancing.
+     */
+    
+    N rebalance(N node) {
+        int balance = height(node.getLeft()) - height(node.getRight());
+        if (balance > 1) {
+            if (height(node.getLeft().getLeft()) < height(node.getLeft().getRight())) {
+                rotateLeft(node.getLeft()); // Left-right case
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.getRight().getRight()) < height(node.getRight().getLeft())) {
+                rotateRight(node.getRight()); // Right-left case
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * A helper method to find the minimum value node in a subtree.
+     *
+     * @param node The root node of the subtree.
+     * @return The node with the minimum value in the subtree.
+     */
+    
+    static <T extends TreeNode<T>> T minValueNode(T node) {
+        T current = node;
+        while (current.getLeft() != null) {
+            current = current.getLeft();
+        }
+        return current;
+    }
+
+    /**
+     * A helper method to find the maximum value node in a subtree.
+     *
+     * @param node The root node of the subtree.
+     * @return The node with the maximum value in the subtree.
+     */
+    
+    static <T extends TreeNode<T>> T maxValueNode(T node) {
+        T current = node;
+        while (current.getRight() != null) {
+            current = current.getRight();
+        }
+        return current;
+    }
+
+    /**
+     * A helper method to find the inorder successor of a node by following child and parent links.
+     *
+     * @param node The node to start from.
+     * @return The next node in order, or null if the node is the last one.
+     */
+    
+    static <T extends TreeNode<T>> T successor(T node) {
+        if (node.getRight() != null) {
+            return minValueNode(node.getRight());
+        }
+        T current = node;
+        T parent = current.getParent();
+        while (parent != null && parent.getRight() == current) {
+            current = parent;
+            parent = parent.getParent();
+        }
+        return parent;
+    }
+
+    /**
+     * A helper method to find the inorder predecessor of a node by following child and parent links.
+     *
+     * @param node The node to start from.
+     * @return The previous node in order, or null if the node is the first one.
+     */
+    
+    static <T extends TreeNode<T>> T predecessor(T node) {
+        if (node.getLeft() != null) {
+            return maxValueNode(node.getLeft());
+        }
+        T current = node;
+        T parent = current.getParent();
+        while (parent != null && parent.getLeft() == current) {
+            current = parent;
+            parent = parent.getParent();
+        }
+        return parent;
+    }
+}
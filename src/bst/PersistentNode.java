@@ -0,0 +1,203 @@
+package bst;
+
+/**
+ * The PersistentNode class is an immutable AVL node. Updates never modify an existing node: they
+ * copy the nodes on the path from the root to the change and share every other subtree, so a root
+ * reference, once published, is a stable snapshot that can be read without locking.
+ * <p>
+ * The same node type backs two orderings, selected by a flag on every operation: by country name,
+ * or by happiness index and then name.
+ */
+
+final class PersistentNode {
+    final Country country; // The full record of the country, shared by both orderings and all versions.
+    final PersistentNode left; // The left subtree, null if empty.
+    final PersistentNode right; // The right subtree, null if empty.
+    final int height; // Height of the subtree rooted at this node (a leaf has height 1).
+    final int size; // Number of nodes in the subtree rooted at this node.
+
+    /**
+     * Constructor to create a node over two existing subtrees.
+     *
+     * @param country The country record.
+     * @param left    The left subtree, may be null.
+     * @param right   The right subtree, may be null.
+     */
+    
+    PersistentNode(Country country, PersistentNode left, PersistentNode right) {
+        this.country = country;
+        this.left = left;
+        this.right = right;
+        this.height = 1 + Math.max(height(left), height(right));
+        this.size = 1 + size(left) + size(right);
+    }
+
+    /**
+     * A helper method to get the height of a possibly empty subtree.
+     *
+     * @param node The root node of the subtree, may be null.
+     * @return The height of the subtree, 0 if it is empty.
+     */
+    
+    static int height(PersistentNode node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * A helper method to get the number of nodes in a possibly empty subtree.
+     *
+     * @param node The root node of the subtree, may be null.
+     * @return The size of the subtree, 0 if it is empty.
+     */
+    
+    static int size(PersistentNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Order a country against a node.
+     *
+     * @param byHappiness true to order by happiness and then name, false to order by name only.
+     * @param country     The country to compare.
+     * @param node        The node to compare against.
+     * @return A negative, zero or positive number as the country orders before, at or after the node.
+     */
+    
+    static int compare(boolean byHappiness, Country country, PersistentNode node) {
+        if (byHappiness) {
+            int compareResult = Double.compare(country.getHappiness(), node.country.getHappiness());
+            if (compareResult != 0) {
+                return compareResult;
+            }
+        }
+        return country.getCountryName().compareTo(node.country.getCountryName());
+    }
+
+    /**
+     * Find the node of a country by name in a tree ordered by name.
+     *
+     * @param node The root of the tree, may be null.
+     * @param name The name of the country.
+     * @return The node of the country, or null if it is not found.
+     */
+    
+    static PersistentNode find(PersistentNode node, String name) {
+        PersistentNode current = node;
+        while (current != null) {
+            int compareResult = name.compareTo(current.country.getCountryName());
+
+            if (compareResult == 0) {
+                return current;
+            }
+            current = compareResult < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    /**
+     * Insert a country, returning the root of the new version. The old version is unchanged.
+     * If the country is already present the same root is returned.
+     *
+     * @param node        The root of the tree, may be null.
+     * @param byHappiness true if the tree is ordered by happiness and then name.
+     * @param country     The country record.
+     * @return The root of the new version.
+     */
+    
+    static PersistentNode insert(PersistentNode node, boolean byHappiness, Country country) {
+        if (node == null) {
+            return new PersistentNode(country, null, null);
+        }
+
+        int compareResult = compare(byHappiness, country, node);
+
+        if (compareResult < 0) {
+            PersistentNode left = insert(node.left, byHappiness, country);
+            return left == node.left ? node : balance(node.country, left, node.right);
+        } else if (compareResult > 0) {
+            PersistentNode right = insert(node.right, byHappiness, country);
+            return right == node.right ? node : balance(node.country, node.left, right);
+        }
+        return node; // Duplicate, nothing changed.
+    }
+
+    /**
+     * Delete a country, returning the root of the new version. The old version is unchanged.
+     * If the country is not present the same root is returned.
+     *
+     * @param node        The root of the tree, may be null.
+     * @param byHappiness true if the tree is ordered by happiness and then name.
+     * @param country     The country record, as it was inserted.
+     * @return The root of the new version.
+     */
+    
+    static PersistentNode delete(PersistentNode node, boolean byHappiness, Country country) {
+        if (node == null) {
+            return null;
+        }
+
+        int compareResult = compare(byHappiness, country, node);
+
+        if (compareResult < 0) {
+            PersistentNode left = delete(node.left, byHappiness, country);
+            return left == node.left ? node : balance(node.country, left, node.right);
+        } else if (compareResult > 0) {
+            PersistentNode right = delete(node.right, byHappiness, country);
+            return right == node.right ? node : balance(node.country, node.left, right);
+        }
+
+        if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+        PersistentNode successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.country, node.left, deleteMin(node.right));
+    }
+
+    // Helper method to remove the leftmost node of a non-empty subtree.
+    private static PersistentNode deleteMin(PersistentNode node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.country, deleteMin(node.left), node.right);
+    }
+
+    /**
+     * A helper method to build a node over two subtrees whose heights differ by at most two,
+     * applying the AVL rotations needed to bring the difference back to at most one.
+     *
+     * @param country The country of the new node.
+     * @param left    The left subtree.
+     * @param right   The right subtree.
+     * @return The root of the balanced subtree.
+     */
+    
+    private static PersistentNode balance(Country country, PersistentNode left, PersistentNode right) {
+        int balance = height(left) - height(right);
+        if (balance > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new PersistentNode(left.country, left.left,
+                        new PersistentNode(country, left.right, right));
+            }
+            PersistentNode pivot = left.right; // Left-right case
+            return new PersistentNode(pivot.country,
+                    new PersistentNode(left.country, left.left, pivot.left),
+                    new PersistentNode(country, pivot.right, right));
+        }
+        if (balance < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new PersistentNode(right.country,
+                        new PersistentNode(country, left, right.left), right.right);
+            }
+            PersistentNode pivot = right.left; // Right-left case
+            return new PersistentNode(pivot.country,
+                    new PersistentNode(country, left, pivot.left),
+                    new PersistentNode(right.country, pivot.right, right.right));
+        }
+        return new PersistentNode(country, left, right);
+    }
+}
@@ -0,0 +1,512 @@
+package bst;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * The ShardedBinarySearchTree class spreads countries over several balanced BinarySearchTrees by name
+ * range so that writers to different ranges do not contend. Shard i holds the names from boundary i - 1
+ * inclusive up to boundary i exclusive, and each shard has its own read-write lock: finds in a shard run
+ * in parallel, writes to a shard are serialized, and writes to different shards never wait for each other.
+ * Every operation holds at most one shard lock at a time.
+ * <p>
+ * When the names pile up in a few shards, {@link #rebalance()} moves the boundaries so that every shard
+ * holds about the same number of countries. It locks all shards, rebuilds them and publishes a new set
+ * of shards; operations that locked an old shard in the meantime notice it was retired and retry.
+ * <p>
+ * Iteration, ranges and top-k queries read one shard at a time, each under its lock, so they are
+ * consistent per shard but may see writes to later shards that happened after an earlier shard was read.
+ */
+
+public class ShardedBinarySearchTree implements Iterable<Country> {
+    private static final int MAX_SHARDS = 26 * 26; // Two-letter initial boundaries must stay distinct.
+    private static final Comparator<Country> BY_HAPPINESS = Comparator.comparingDouble(Country::getHappiness)
+            .thenComparing(Country::getCountryName); // Order of the happiness index.
+
+    private volatile Layout layout; // Current boundaries and shards, replaced as a whole by rebalance.
+    private final Object rebalanceLock = new Object(); // Serializes rebalances.
+
+    /**
+     * Constructor to create an empty sharded tree with boundaries spread evenly over names starting
+     * with "A" to "Z". Call {@link #rebalance()} once data is loaded to fit them to the actual names.
+     *
+     * @param shards The number of shards, between 1 and 676.
+     * @throws IllegalArgumentException If the number of shards is out of range.
+     */
+    
+    public ShardedBinarySearchTree(int shards) {
+        this(initialBoundaries(shards));
+    }
+
+    /**
+     * Constructor to create an empty sharded tree with given boundaries; n boundaries make n + 1 shards.
+     *
+     * @param boundaries The first name of every shard but the first, in strictly ascending order.
+     * @throws IllegalArgumentException If the boundaries are not strictly ascending.
+     */
+    
+    public ShardedBinarySearchTree(String... boundaries) {
+        for (int i = 1; i < boundaries.length; i++) {
+            if (boundaries[i - 1].compareTo(boundaries[i]) >= 0) {
+                throw new IllegalArgumentException("Shard boundaries must be strictly ascending: "
+                        + boundaries[i - 1] + " then " + boundaries[i]);
+            }
+        }
+        Shard[] shards = new Shard[boundaries.length + 1];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(new BinarySearchTree(true));
+        }
+        this.layout = new Layout(boundaries.clone(), shards);
+    }
+
+    // Helper method to spread boundaries evenly over two-letter name prefixes from "Aa" to "Zz".
+    private static String[] initialBoundaries(int shards) {
+        if (shards < 1 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("Number of shards must be between 1 and " + MAX_SHARDS + ": " + shards);
+        }
+        String[] boundaries = new String[shards - 1];
+        for (int i = 1; i < shards; i++) {
+            int position = MAX_SHARDS * i / shards;
+            boundaries[i - 1] = new String(new char[]{(char) ('A' + position / 26), (char) ('a' + position % 26)});
+        }
+        return boundaries;
+    }
+
+    /**
+     * Insert a country into the shard of its name. Inserting a name that is already present has no effect.
+     *
+     * @param name      The name of the country.
+     * @param happiness The happiness index of the country.
+     */
+    
+    public void insert(String name, double happiness) {
+        insert(new Country(name, happiness));
+    }
+
+    /**
+     * Insert a full country record into the shard of its name. Inserting a name that is already present
+     * has no effect.
+     *
+     * @param country The country to insert.
+     */
+    
+    public void insert(Country country) {
+        Shard shard = lock(country.getCountryName(), true);
+        try {
+            shard.tree.insert(country);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Delete a country from the shard of its name.
+     *
+     * @param name The name of the country to delete.
+     */
+    
+    public void delete(String name) {
+        Shard shard = lock(name, true);
+        try {
+            shard.tree.delete(name);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the happiness index of a country based on its name. Finds only wait for writes to the same shard.
+     *
+     * @param name The name of the country to search for.
+     * @return The happiness index of the country, or -1 if the country is not found.
+     */
+    
+    public double find(String name) {
+        Shard shard = lock(name, false);
+        try {
+            return shard.tree.find(name);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the full record of a country based on its name.
+     *
+     * @param name The name of the country to search for.
+     * @return The country record, or null if the country is not found.
+     */
+    
+    public Country findCountry(String name) {
+        Shard shard = lock(name, false);
+        try {
+            return shard.tree.findCountry(name);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of countries, adding up the shards one at a time.
+     *
+     * @return The number of countries.
+     */
+    
+    public int size() {
+        int size = 0;
+        for (int shardSize : getShardSizes()) {
+            size += shardSize;
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of shards.
+     *
+     * @return The number of shards.
+     */
+    
+    public int getShardCount() {
+        return layout.shards.length;
+    }
+
+    /**
+     * Get the current shard boundaries.
+     *
+     * @return The first name of every shard but the first, in ascending order.
+     */
+    
+    public String[] getBoundaries() {
+        return layout.boundaries.clone();
+    }
+
+    /**
+     * Get the number of countries in each shard.
+     *
+     * @return The shard sizes, in name order of the shards.
+     */
+    
+    public int[] getShardSizes() {
+        List<Integer> sizes = readShards(BinarySearchTree::size);
+        int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sizes.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Move the shard boundaries so that every shard holds about the same number of countries. All
+     * shards are locked while their contents are redistributed, which takes O(n); each new shard is
+     * built balanced in one pass. Does nothing while there are fewer countries than shards.
+     */
+    
+    public void rebalance() {
+        synchronized (rebalanceLock) {
+            Layout current = layout;
+            Shard[] shards = current.shards;
+            for (Shard shard : shards) {
+                shard.lock.writeLock().lock();
+            }
+            try {
+                List<Country> countries = new ArrayList<>();
+                for (Shard shard : shards) {
+                    shard.tree.forEachInorder(countries::add);
+                }
+                int total = countries.size();
+                if (total < shards.length) {
+                    return;
+                }
+
+                String[] boundaries = new String[shards.length - 1];
+                Shard[] rebuilt = new Shard[shards.length];
+                int from = 0;
+                for (int i = 0; i < rebuilt.length; i++) {
+                    int to = (int) ((long) total * (i + 1) / rebuilt.length);
+                    if (i > 0) {
+                        boundaries[i - 1] = countries.get(from).getCountryName();
+                    }
+                    rebuilt[i] = new Shard(new BinarySearchTree(true));
+                    rebuilt[i].tree.insertAll(countries.subList(from, to).toArray(new Country[0]));
+                    from = to;
+                }
+                for (Shard shard : shards) {
+                    shard.retired = true;
+                }
+                layout = new Layout(boundaries, rebuilt);
+            } finally {
+                for (Shard shard : shards) {
+                    shard.lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebalance the shards if the largest one holds more than a given multiple of the average.
+     *
+     * @param maxSkew The largest accepted ratio between the largest shard and the average shard, at least 1.
+     * @return true if the shards were rebalanced.
+     */
+    
+    public boolean rebalanceIfSkewed(double maxSkew) {
+        int[] sizes = getShardSizes();
+        long total = 0;
+        int largest = 0;
+        for (int size : sizes) {
+            total += size;
+            largest = Math.max(largest, size);
+        }
+        if (total < sizes.length || largest <= maxSkew * total / sizes.length) {
+            return false;
+        }
+        rebalance();
+        return true;
+    }
+
+    /**
+     * Get the top countries based on their happiness indices, merging the top countries of every shard.
+     *
+     * @param count The number of top countries to retrieve.
+     * @return The top countries by happiness in descending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getTopCountryEntries(int count) {
+        return merge(readShards(tree -> tree.getTopCountryEntries(count)), count, BY_HAPPINESS.reversed());
+    }
+
+    /**
+     * Get the bottom countries based on their happiness indices, merging the bottom countries of every shard.
+     *
+     * @param count The number of bottom countries to retrieve.
+     * @return The bottom countries by happiness in ascending order, at most count and at most size() of them.
+     */
+    
+    public Country[] getBottomCountryEntries(int count) {
+        return merge(readShards(tree -> tree.getBottomCountryEntries(count)), count, BY_HAPPINESS);
+    }
+
+    /**
+     * Get the countries whose names fall between two bounds, both inclusive, in alphabetical order.
+     * Only the shards overlapping the range are read, one at a time as the iteration reaches them.
+     *
+     * @param from The lowest name to include.
+     * @param to   The highest name to include.
+     * @return The countries in the range.
+     */
+    
+    public Iterable<Country> range(String from, String to) {
+        return () -> {
+            Layout current = layout;
+            return new ShardIterator(current, current.indexOf(from), current.indexOf(to), from, to);
+        };
+    }
+
+    /**
+     * Iterate over all countries in alphabetical order, reading one shard at a time.
+     *
+     * @return An iterator over the countries.
+     */
+    
+    @Override
+    public Iterator<Country> iterator() {
+        Layout current = layout;
+        return new ShardIterator(current, 0, current.shards.length - 1, null, null);
+    }
+
+    /**
+     * A helper method to lock the live shard holding a name. If a rebalance retired the shard before the
+     * lock was granted, the lock is released and the shard is looked up again in the new layout, which
+     * was published before the retired shard was unlocked.
+     *
+     * @param name  The country name.
+     * @param write true for the write lock, false for the read lock.
+     * @return The shard, locked; the caller unlocks it.
+     */
+    
+    private Shard lock(String name, boolean write) {
+        while (true) {
+            Shard shard = layout.shardFor(name);
+            Lock lock = write ? shard.lock.writeLock() : shard.lock.readLock();
+            lock.lock();
+            if (!shard.retired) {
+                return shard;
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A helper method to run a read on every shard in name order, each under its read lock. If a
+     * rebalance retires a shard before it is read, the reads start over on the new layout.
+     *
+     * @param read The read to run on a shard's tree.
+     * @param <T>  The result type of the read.
+     * @return The results, one per shard.
+     */
+    
+    private <T> List<T> readShards(Function<BinarySearchTree, T> read) {
+        while (true) {
+            Shard[] shards = layout.shards;
+            List<T> results = new ArrayList<>(shards.length);
+            for (Shard shard : shards) {
+                shard.lock.readLock().lock();
+                try {
+                    if (shard.retired) {
+                        break;
+                    }
+                    results.add(read.apply(shard.tree));
+                } finally {
+                    shard.lock.readLock().unlock();
+                }
+            }
+            if (results.size() == shards.length) {
+                return results;
+            }
+        }
+    }
+
+    /**
+     * A helper method to merge sorted runs of countries, keeping the first count of them.
+     *
+     * @param runs  The runs, each sorted by the order.
+     * @param count The number of countries to keep.
+     * @param order The order of the runs and of the result.
+     * @return The first countries of all runs in order.
+     */
+    
+    private static Country[] merge(List<Country[]> runs, int count, Comparator<Country> order) {
+        int total = 0;
+        for (Country[] run : runs) {
+            total += run.length;
+        }
+        Country[] result = new Country[Math.max(0, Math.min(count, total))];
+        // Each heap entry is {run, position}, ordered by the country at that position.
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> order.compare(runs.get(a[0])[a[1]], runs.get(b[0])[b[1]]));
+        for (int i = 0; i < runs.size(); i++) {
+            if (runs.get(i).length > 0) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        for (int i = 0; i < result.length; i++) {
+            int[] head = heads.poll();
+            Country[] run = runs.get(head[0]);
+            result[i] = run[head[1]];
+            if (++head[1] < run.length) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The Shard class is one sub-tree with its lock.
+     */
+    
+    private static final class Shard {
+        final BinarySearchTree tree; // The countries of the shard's name range.
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // Guards the tree and retired.
+        boolean retired; // Set under the write lock once a rebalance has replaced the shard.
+
+        Shard(BinarySearchTree tree) {
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * The Layout class is one immutable assignment of name ranges to shards.
+     */
+    
+    private static final class Layout {
+        final String[] boundaries; // First name of every shard but the first, ascending.
+        final Shard[] shards; // One more shard than boundaries.
+
+        Layout(String[] boundaries, Shard[] shards) {
+            this.boundaries = boundaries;
+            this.shards = shards;
+        }
+
+        // Helper method to get the position of the shard whose range holds a name.
+        int indexOf(String name) {
+            int position = Arrays.binarySearch(boundaries, name);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+
+        // Helper method to get the shard whose range holds a name.
+        Shard shardFor(String name) {
+            return shards[indexOf(name)];
+        }
+    }
+
+    /**
+     * The ShardIterator class walks a run of shards in order, copying each shard's countries in the range
+     * under its read lock when the iteration reaches it. Retired shards are walked as they were when they
+     * were retired, since nothing writes to them afterwards.
+     */
+    
+    private static final class ShardIterator implements Iterator<Country> {
+        private final Layout layout; // The layout the iteration started with.
+        private final int lastShard; // Position of the last shard to read.
+        private final String from; // Inclusive lower name bound, or null for none.
+        private final String to; // Inclusive upper name bound, or null for none.
+        private int nextShard; // Position of the next shard to read.
+        private Country[] batch = new Country[0]; // Countries of the shard being walked.
+        private int position; // Position of the next country in the batch.
+
+        /**
+         * Constructor to create an iterator over a run of shards.
+         *
+         * @param layout     The layout to iterate.
+         * @param firstShard The position of the first shard to read.
+         * @param lastShard  The position of the last shard to read.
+         * @param from       The inclusive lower name bound, or null for none.
+         * @param to         The inclusive upper name bound, or null for none.
+         */
+        
+        ShardIterator(Layout layout, int firstShard, int lastShard, String from, String to) {
+            this.layout = layout;
+            this.nextShard = firstShard;
+            this.lastShard = lastShard;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == batch.length && nextShard <= lastShard) {
+                Shard shard = layout.shards[nextShard++];
+                List<Country> countries = new ArrayList<>();
+                shard.lock.readLock().lock();
+                try {
+                    if (from == null) {
+                        shard.tree.forEachInorder(countries::add);
+                    } else {
+                        shard.tree.range(from, to).forEach(countries::add);
+                    }
+                } finally {
+                    shard.lock.readLock().unlock();
+                }
+                batch = countries.toArray(new Country[0]);
+                position = 0;
+            }
+            return position < batch.length;
+        }
+
+        @Override
+        public Country next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch[position++];
+        }
+    }
+}
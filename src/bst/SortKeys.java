@@ -0,0 +1,62 @@
+package bst;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * The SortKeys class computes the keys the country tree orders names by: the packed prefix compared
+ * before the full name, and the case- and accent-insensitive form of a name used by trees with
+ * normalized keys.
+ */
+
+class SortKeys {
+    private static final int PREFIX_CHARS = Long.BYTES; // Characters packed into a prefix, one byte each.
+    private static final int SATURATED = 0xFF; // Byte of a character that does not fit into one byte.
+
+    private SortKeys() {
+    }
+
+    /**
+     * Pack the first eight characters of a key into a long, one byte per character, so that two keys
+     * whose prefixes differ compare like the keys themselves when the prefixes are compared unsigned.
+     * Characters from U+00FF upwards are all packed as 0xFF and end the prefix, and a key shorter than
+     * eight characters is padded with zero bytes, so equal prefixes only mean the keys still need a
+     * full comparison.
+     *
+     * @param key The key.
+     * @return The packed prefix of the key.
+     */
+    
+    static long prefixOf(String key) {
+        long prefix = 0;
+        int length = Math.min(key.length(), PREFIX_CHARS);
+        int i = 0;
+        while (i < length) {
+            int c = Math.min(key.charAt(i), SATURATED);
+            prefix = (prefix << Byte.SIZE) | c;
+            i++;
+            if (c == SATURATED) {
+                break; // Characters after a saturated one are unordered by the prefix.
+            }
+        }
+        return prefix << (Byte.SIZE * (PREFIX_CHARS - i));
+    }
+
+    /**
+     * Normalize a name for case- and accent-insensitive ordering: accents are stripped after canonical
+     * decomposition and the result is lower-cased. Plain ASCII names are only lower-cased.
+     *
+     * @param name The name.
+     * @return The normalized name.
+     */
+    
+    static String normalize(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+                return decomposed.replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT);
+            }
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,22 @@
+package bst;
+
+/**
+ * The TopKListener interface is notified when the membership of a TopKView changes, so consumers can
+ * react to countries entering or leaving the top or bottom of the happiness ranking instead of polling.
+ */
+
+@FunctionalInterface
+public interface TopKListener {
+
+    /**
+     * Called after a change of the tree moved countries in or out of a view. A country entering a full
+     * view pushes the last member out; a member deleted from the tree is replaced by the next country in
+     * line, if there is one.
+     *
+     * @param view    The view that changed; its contents already reflect the change.
+     * @param entered The country that became a member, or null if none did.
+     * @param left    The country that stopped being a member, or null if none did.
+     */
+    
+    void membershipChanged(TopKView view, Country entered, Country left);
+}
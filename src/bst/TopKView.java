@@ -0,0 +1,218 @@
+package bst;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The TopKView class keeps the k happiest (or least happy) countries of a BinarySearchTree up to date as
+ * the tree changes, so that reading them costs a copy of k references instead of a query. Views are
+ * created with {@link BinarySearchTree#registerTopView(int)} and {@link BinarySearchTree#registerBottomView(int)}.
+ * <p>
+ * The tree hands every inserted and deleted country to its views. A change that does not cross the
+ * boundary of a view, the last member, leaves it alone after one comparison. An insert that does cross it
+ * shifts at most k references, and a deleted member is replaced by one O(log n) selection from the
+ * happiness index. Batch rebuilds of the tree refresh the view from the index.
+ * <p>
+ * The members are replaced as a whole on every change and published through a volatile field, so other
+ * threads may read a view while the owning thread updates the tree. Listeners run on the updating thread.
+ */
+
+public final class TopKView {
+    private static final Comparator<Country> BY_HAPPINESS = Comparator.comparingDouble(Country::getHappiness)
+            .thenComparing(Country::getCountryName); // Order of the happiness index.
+
+    private final int count; // Number of countries the view holds once the tree is large enough.
+    private final boolean top; // true for the happiest countries, false for the least happy.
+    private final Comparator<Country> order; // Order of the members, best first.
+    private final List<TopKListener> listeners = new ArrayList<>(); // Notified of membership changes.
+    private volatile Country[] members; // Current members in view order, replaced on every change.
+
+    /**
+     * Constructor to create a view filled from a happiness index.
+     *
+     * @param count The number of countries to hold.
+     * @param top   true for the happiest countries, false for the least happy.
+     * @param index The happiness index of the tree.
+     */
+    
+    TopKView(int count, boolean top, HappinessIndex index) {
+        this.count = count;
+        this.top = top;
+        this.order = top ? BY_HAPPINESS.reversed() : BY_HAPPINESS;
+        this.members = read(index);
+    }
+
+    /**
+     * Get the members of the view.
+     *
+     * @return The countries in the view, happiest first for a top view and least happy first for a
+     *         bottom view; at most the view's count of them.
+     */
+    
+    public Country[] getCountries() {
+        return members.clone();
+    }
+
+    /**
+     * Get the names of the members of the view.
+     *
+     * @return The country names in the order of {@link #getCountries()}.
+     */
+    
+    public String[] getCountryNames() {
+        Country[] current = members;
+        String[] names = new String[current.length];
+        for (int i = 0; i < current.length; i++) {
+            names[i] = current[i].getCountryName();
+        }
+        return names;
+    }
+
+    /**
+     * Get the number of countries the view holds once the tree is large enough.
+     *
+     * @return The k of the view.
+     */
+    
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Check whether the view holds the happiest countries.
+     *
+     * @return true for a top view, false for a bottom view.
+     */
+    
+    public boolean isTop() {
+        return top;
+    }
+
+    /**
+     * Register a listener for membership changes.
+     *
+     * @param listener The listener.
+     */
+    
+    public void addListener(TopKListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    
+    public void removeListener(TopKListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the first members of the view.
+     *
+     * @param count The number of members to copy.
+     * @return The first count members, at most as many as the view has.
+     */
+    
+    Country[] first(int count) {
+        Country[] current = members;
+        return Arrays.copyOf(current, Math.max(0, Math.min(count, current.length)));
+    }
+
+    /**
+     * Account for a country that was inserted into the tree.
+     *
+     * @param country The inserted country.
+     */
+    
+    void inserted(Country country) {
+        Country[] current = members;
+        if (current.length == count && order.compare(country, current[count - 1]) > 0) {
+            return; // Behind the boundary, the view is unchanged.
+        }
+        int position = -Arrays.binarySearch(current, country, order) - 1;
+        Country[] changed = new Country[Math.min(count, current.length + 1)];
+        System.arraycopy(current, 0, changed, 0, position);
+        changed[position] = country;
+        System.arraycopy(current, position, changed, position + 1, changed.length - position - 1);
+        members = changed;
+        notifyListeners(country, current.length == count ? current[count - 1] : null);
+    }
+
+    /**
+     * Account for a country that was deleted from the tree, after it was removed from the index.
+     *
+     * @param country The deleted country.
+     * @param index   The happiness index of the tree.
+     */
+    
+    void deleted(Country country, HappinessIndex index) {
+        Country[] current = members;
+        int position = Arrays.binarySearch(current, country, order);
+        if (position < 0) {
+            return; // Not a member, the view is unchanged.
+        }
+        int size = NodeTree.size(index.root);
+        Country replacement = null;
+        if (size >= count) {
+            replacement = index.nodeAt(top ? size - count : count - 1).getCountry();
+        }
+        Country[] changed = new Country[replacement == null ? current.length - 1 : current.length];
+        System.arraycopy(current, 0, changed, 0, position);
+        System.arraycopy(current, position + 1, changed, position, current.length - position - 1);
+        if (replacement != null) {
+            changed[changed.length - 1] = replacement;
+        }
+        members = changed;
+        notifyListeners(replacement, current[position]);
+    }
+
+    /**
+     * Reload the view from the index after the tree was rebuilt, notifying listeners of every country
+     * that entered or left, paired up where possible.
+     *
+     * @param index The happiness index of the tree.
+     */
+    
+    void refresh(HappinessIndex index) {
+        Country[] current = members;
+        Country[] changed = read(index);
+        members = changed;
+        List<Country> entered = difference(changed, current);
+        List<Country> left = difference(current, changed);
+        for (int i = 0; i < Math.max(entered.size(), left.size()); i++) {
+            notifyListeners(i < entered.size() ? entered.get(i) : null, i < left.size() ? left.get(i) : null);
+        }
+    }
+
+    // Helper method to read the members of the view from the index.
+    private Country[] read(HappinessIndex index) {
+        return top ? index.highest(count) : index.lowest(count);
+    }
+
+    // Helper method to get the countries of one array that are not in another, by identity.
+    private static List<Country> difference(Country[] countries, Country[] others) {
+        Set<Country> excluded = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(excluded, others);
+        List<Country> result = new ArrayList<>();
+        for (Country country : countries) {
+            if (!excluded.contains(country)) {
+                result.add(country);
+            }
+        }
+        return result;
+    }
+
+    // Helper method to tell every listener about a membership change.
+    private void notifyListeners(Country entered, Country left) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).membershipChanged(this, entered, left);
+        }
+    }
+}
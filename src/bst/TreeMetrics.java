@@ -0,0 +1,182 @@
+package bst;
+
+import java.util.Arrays;
+
+/**
+ * The TreeMetrics class collects per-operation counters and latency histograms for one
+ * BinarySearchTree. It only exists while metrics are enabled on the tree; a tree without metrics
+ * skips the clock reads entirely, so the disabled path costs one null check per operation.
+ * <p>
+ * Latencies go into power-of-two buckets (bucket b holds durations below 2^b nanoseconds), so
+ * recording is an array increment and percentiles are accurate to within a factor of two.
+ * Recording is not synchronized, like the tree itself; readers on other threads, such as JMX,
+ * may see values that are slightly behind.
+ * <p>
+ * The metrics also carry the last shape of the tree sampled on the thread that owns it. Readers on
+ * other threads never walk the tree: they read the published shape and, once it is older than the
+ * refresh interval, ask the owning thread to sample a new one at its next operation.
+ */
+
+public final class TreeMetrics {
+    private static final int BUCKETS = Long.SIZE + 1; // One bucket per possible bit length of a duration.
+    private static final long SHAPE_REFRESH_NANOS = 1_000_000_000L; // Age at which readers request a new shape.
+
+    /**
+     * The operations that are measured. The batch operations insertAll, findAll and deleteAll are
+     * recorded as one call per batch.
+     */
+    
+    public enum Operation {
+        INSERT, FIND, DELETE, TOP_K, INSERT_ALL, FIND_ALL, DELETE_ALL
+    }
+
+    private final long[] counts = new long[Operation.values().length]; // Calls per operation.
+    private final long[] totalNanos = new long[Operation.values().length]; // Summed latency per operation.
+    private final long[][] histograms = new long[Operation.values().length][BUCKETS]; // Latency buckets.
+    private volatile TreeShape shape = new TreeShape(0, 0, 0, 0); // Last shape sampled by the owning thread.
+    private volatile long shapeNanos; // System.nanoTime() when the shape was published.
+    private volatile boolean shapeRequested; // Whether a reader asked for a new shape.
+
+    /**
+     * Constructor to create empty metrics; trees create them through enableMetrics().
+     */
+    
+    TreeMetrics() {
+    }
+
+    /**
+     * Record one call of an operation that started at the given time.
+     *
+     * @param operation  The operation.
+     * @param startNanos The System.nanoTime() value read when the operation started.
+     */
+    
+    void record(Operation operation, long startNanos) {
+        long nanos = Math.max(0, System.nanoTime() - startNanos);
+        int index = operation.ordinal();
+        counts[index]++;
+        totalNanos[index] += nanos;
+        histograms[index][Long.SIZE - Long.numberOfLeadingZeros(nanos)]++;
+    }
+
+    /**
+     * Check whether a reader asked for a new shape. Called by the owning thread after each operation,
+     * so the check costs one volatile read.
+     *
+     * @return true if the owning thread should sample and publish the shape.
+     */
+    
+    boolean isShapeRequested() {
+        return shapeRequested;
+    }
+
+    /**
+     * Publish a shape sampled on the thread that owns the tree.
+     *
+     * @param shape The shape of the tree.
+     */
+    
+    void publishShape(TreeShape shape) {
+        this.shape = shape;
+        shapeNanos = System.nanoTime();
+        shapeRequested = false;
+    }
+
+    /**
+     * Get the last published shape of the tree, asking the owning thread for a new one if it is
+     * older than the refresh interval. Safe to call from any thread.
+     *
+     * @return The last published shape; empty until the owning thread has published one.
+     */
+    
+    TreeShape getShape() {
+        if (System.nanoTime() - shapeNanos > SHAPE_REFRESH_NANOS) {
+            shapeRequested = true;
+        }
+        return shape;
+    }
+
+    /**
+     * Get the number of recorded calls of an operation.
+     *
+     * @param operation The operation.
+     * @return The call count.
+     */
+    
+    public long getCount(Operation operation) {
+        return counts[operation.ordinal()];
+    }
+
+    /**
+     * Get the mean latency of an operation.
+     *
+     * @param operation The operation.
+     * @return The mean latency in nanoseconds, 0 if the operation was not called.
+     */
+    
+    public double getMeanNanos(Operation operation) {
+        long count = counts[operation.ordinal()];
+        return count == 0 ? 0 : (double) totalNanos[operation.ordinal()] / count;
+    }
+
+    /**
+     * Get an upper bound of a latency percentile of an operation, from its histogram.
+     *
+     * @param operation  The operation.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the histogram bucket holding the percentile in nanoseconds,
+     *         0 if the operation was not called.
+     */
+    
+    public long getPercentileNanos(Operation operation, double percentile) {
+        long[] histogram = histograms[operation.ordinal()];
+        long count = counts[operation.ordinal()];
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += histogram[bucket];
+            if (seen >= Math.max(1, rank)) {
+                return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Get the raw latency histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return A copy of the bucket counts; bucket b counts calls that took less than 2^b nanoseconds
+     *         and at least 2^(b-1).
+     */
+    
+    public long[] getHistogram(Operation operation) {
+        return histograms[operation.ordinal()].clone();
+    }
+
+    /**
+     * Reset all counters and histograms to zero.
+     */
+    
+    public void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(totalNanos, 0);
+        for (long[] histogram : histograms) {
+            Arrays.fill(histogram, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            text.append(String.format("%-10s count=%d mean=%.0fns p50<=%dns p99<=%dns%n", operation,
+                    getCount(operation), getMeanNanos(operation),
+                    getPercentileNanos(operation, 50), getPercentileNanos(operation, 99)));
+        }
+        return text.toString();
+    }
+}
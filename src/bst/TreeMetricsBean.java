@@ -0,0 +1,87 @@
+package bst;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * The TreeMetricsBean class implements the JMX view of one tree. Operation metrics are read from the
+ * tree's TreeMetrics. JMX reads run on other threads, so the bean never walks the tree: the shape
+ * attributes come from the shape last published by the thread that owns the tree, which samples a new
+ * one at its next operation once the published one is older than a second.
+ */
+
+class TreeMetricsBean implements TreeMetricsMXBean {
+    private final BinarySearchTree tree; // The tree being observed.
+    private final TreeMetrics metrics; // The metrics of the tree.
+
+    /**
+     * Constructor to create the view of a tree.
+     *
+     * @param tree    The tree being observed.
+     * @param metrics The metrics of the tree.
+     */
+    
+    TreeMetricsBean(BinarySearchTree tree, TreeMetrics metrics) {
+        this.tree = tree;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        return byOperation(metrics::getCount);
+    }
+
+    @Override
+    public Map<String, Double> getMeanNanos() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (TreeMetrics.Operation operation : TreeMetrics.Operation.values()) {
+            result.put(operation.name(), metrics.getMeanNanos(operation));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getP50Nanos() {
+        return byOperation(operation -> metrics.getPercentileNanos(operation, 50));
+    }
+
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        return byOperation(operation -> metrics.getPercentileNanos(operation, 99));
+    }
+
+    @Override
+    public int getSize() {
+        return tree.size();
+    }
+
+    @Override
+    public int getHeight() {
+        return tree.getHeight();
+    }
+
+    @Override
+    public double getAverageDepth() {
+        return metrics.getShape().getAverageDepth();
+    }
+
+    @Override
+    public int getImbalance() {
+        return metrics.getShape().getImbalance();
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+
+    // Helper method to collect one number per operation, in declaration order.
+    private static Map<String, Long> byOperation(ToLongFunction<TreeMetrics.Operation> value) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (TreeMetrics.Operation operation : TreeMetrics.Operation.values()) {
+            result.put(operation.name(), value.applyAsLong(operation));
+        }
+        return result;
+    }
+}
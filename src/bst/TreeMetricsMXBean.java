@@ -0,0 +1,82 @@
+package bst;
+
+import java.util.Map;
+
+/**
+ * The TreeMetricsMXBean interface is the JMX view of the metrics and shape of a BinarySearchTree,
+ * registered with {@link BinarySearchTree#registerMetricsMBean(String)}. Operation metrics are keyed
+ * by the names of {@link TreeMetrics.Operation}.
+ */
+
+public interface TreeMetricsMXBean {
+
+    /**
+     * Get the number of recorded calls per operation.
+     *
+     * @return The call counts by operation name.
+     */
+    
+    Map<String, Long> getCounts();
+
+    /**
+     * Get the mean latency per operation.
+     *
+     * @return The mean latencies in nanoseconds by operation name.
+     */
+    
+    Map<String, Double> getMeanNanos();
+
+    /**
+     * Get an upper bound of the median latency per operation.
+     *
+     * @return The median latency bounds in nanoseconds by operation name.
+     */
+    
+    Map<String, Long> getP50Nanos();
+
+    /**
+     * Get an upper bound of the 99th percentile latency per operation.
+     *
+     * @return The 99th percentile latency bounds in nanoseconds by operation name.
+     */
+    
+    Map<String, Long> getP99Nanos();
+
+    /**
+     * Get the number of countries in the tree.
+     *
+     * @return The size of the tree.
+     */
+    
+    int getSize();
+
+    /**
+     * Get the height of the tree.
+     *
+     * @return The number of nodes on the longest root-to-leaf path.
+     */
+    
+    int getHeight();
+
+    /**
+     * Get the average depth of a country in the tree. This walks the whole tree.
+     *
+     * @return The average depth, the root having depth 1.
+     */
+    
+    double getAverageDepth();
+
+    /**
+     * Get the largest height difference between sibling subtrees. This walks the whole tree.
+     *
+     * @return The imbalance of the tree.
+     */
+    
+    int getImbalance();
+
+    /**
+     * Reset all operation counters and histograms.
+     */
+    
+    void reset();
+}
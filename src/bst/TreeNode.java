@@ -0,0 +1,125 @@
+package bst;
+
+/**
+ * The TreeNode class holds the links and cached subtree statistics shared by the nodes of every tree
+ * in this package. Subclasses add the key and value they store.
+ *
+ * @param <N> The concrete node type, so links keep their type without casts.
+ */
+
+abstract class TreeNode<N extends TreeNode<N>> {
+    private N left; // Reference to the left child node.
+    private N right; // Reference to the right child node.
+    private N parent; // Reference to the parent node, null for the root.
+    private int height = 1; // Height of the subtree rooted at this node (a leaf has height 1).
+    private int size = 1; // Number of nodes in the subtree rooted at this node.
+
+    /**
+     * Get the reference to the left child node.
+     *
+     * @return The left child node.
+     */
+    
+    public N getLeft() {
+        return left;
+    }
+
+    /**
+     * Get the reference to the right child node.
+     *
+     * @return The right child node.
+     */
+    
+    public N getRight() {
+        return right;
+    }
+
+    /**
+     * Get the reference to the parent node.
+     *
+     * @return The parent node, or null if this node is the root.
+     */
+    
+    public N getParent() {
+        return parent;
+    }
+
+    /**
+     * Set the left child node.
+     *
+     * @param node The left child node to set.
+     */
+    
+    public void setLeft(N node) {
+        left = node;
+    }
+
+    /**
+     * Set the right child node.
+     *
+     * @param node The right child node to set.
+     */
+    
+    public void setRight(N node) {
+        right = node;
+    }
+
+    /**
+     * Set the parent node.
+     *
+     * @param node The parent node to set, or null if this node becomes the root.
+     */
+    
+    public void setParent(N node) {
+        parent = node;
+    }
+
+    /**
+     * Get the height of the subtree rooted at this node.
+     *
+     * @return The subtree height, 1 for a leaf.
+     */
+    
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Set the height of the subtree rooted at this node.
+     *
+     * @param height The subtree height to set.
+     */
+    
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    /**
+     * Get the number of nodes in the subtree rooted at this node.
+     *
+     * @return The subtree size, 1 for a leaf.
+     */
+    
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Set the number of nodes in the subtree rooted at this node.
+     *
+     * @param size The subtree size to set.
+     */
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Recompute the aggregates a node type keeps over its subtree from its own value and its
+     * children. The tree calls it whenever the subtree changes, after the children are up to date.
+     * The default keeps no aggregates.
+     */
+    
+    void updateAggregates() {
+    }
+}
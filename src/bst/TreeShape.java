@@ -0,0 +1,134 @@
+package bst;
+
+import java.util.Arrays;
+
+/**
+ * The TreeShape class is a snapshot of the shape of a tree: how many nodes it has, how deep they sit
+ * and how far the tree is from being balanced. The average depth is the average number of nodes a
+ * successful search visits, so it is the expected number of key comparisons of find.
+ * <p>
+ * Like the tree itself, measuring is not thread-safe: the shape must be sampled on the thread that owns
+ * the tree. Other threads, such as JMX, read the last shape published through the tree's TreeMetrics.
+ */
+
+public final class TreeShape {
+    private final int size; // Number of nodes.
+    private final int height; // Number of nodes on the longest root-to-leaf path.
+    private final double averageDepth; // Average number of nodes from the root to a node, inclusive.
+    private final int imbalance; // Largest height difference between the two subtrees of any node.
+
+    /**
+     * Constructor to create a shape snapshot.
+     *
+     * @param size         The number of nodes.
+     * @param height       The height of the tree.
+     * @param averageDepth The average depth of a node, the root having depth 1.
+     * @param imbalance    The largest height difference between sibling subtrees.
+     */
+    
+    TreeShape(int size, int height, double averageDepth, int imbalance) {
+        this.size = size;
+        this.height = height;
+        this.averageDepth = averageDepth;
+        this.imbalance = imbalance;
+    }
+
+    /**
+     * Measure the shape of a tree with one walk over its nodes, using an explicit stack so that
+     * degenerate trees do not overflow the call stack. The tree must not change during the walk, so
+     * call it from the thread that owns the tree. As a safeguard against a walk that races with a
+     * change anyway, it stops after more nodes than the root's size or deeper than the root's height.
+     *
+     * @param root The root node of the tree, may be null.
+     * @return The shape of the tree.
+     */
+    
+    static TreeShape of(TreeNode<?> root) {
+        if (root == null) {
+            return new TreeShape(0, 0, 0, 0);
+        }
+        int maxSize = NodeTree.size(root);
+        int maxHeight = NodeTree.height(root);
+        TreeNode<?>[] nodes = new TreeNode<?>[Math.max(2, maxHeight + 1)];
+        int[] depths = new int[nodes.length];
+        int top = 0;
+        nodes[top] = root;
+        depths[top++] = 1;
+        int size = 0;
+        long depthSum = 0;
+        int imbalance = 0;
+        while (top > 0 && size < maxSize) {
+            TreeNode<?> node = nodes[--top];
+            int depth = depths[top];
+            if (depth > maxHeight) {
+                continue; // Only reachable through a concurrent change.
+            }
+            size++;
+            depthSum += depth;
+            imbalance = Math.max(imbalance,
+                    Math.abs(NodeTree.height(node.getLeft()) - NodeTree.height(node.getRight())));
+            if (top + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            // Read each link once, so a concurrent change cannot push a null.
+            TreeNode<?> right = node.getRight();
+            if (right != null) {
+                nodes[top] = right;
+                depths[top++] = depth + 1;
+            }
+            TreeNode<?> left = node.getLeft();
+            if (left != null) {
+                nodes[top] = left;
+                depths[top++] = depth + 1;
+            }
+        }
+        return new TreeShape(size, maxHeight, (double) depthSum / size, imbalance);
+    }
+
+    /**
+     * Get the number of nodes.
+     *
+     * @return The size of the tree.
+     */
+    
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of nodes on the longest root-to-leaf path.
+     *
+     * @return The height of the tree, 0 if it is empty.
+     */
+    
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the average depth of a node, the root having depth 1.
+     *
+     * @return The average depth, 0 if the tree is empty.
+     */
+    
+    public double getAverageDepth() {
+        return averageDepth;
+    }
+
+    /**
+     * Get the largest height difference between the two subtrees of any node. A self-balancing tree
+     * keeps it at most 1.
+     *
+     * @return The imbalance of the tree.
+     */
+    
+    public int getImbalance() {
+        return imbalance;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d height=%d averageDepth=%.2f imbalance=%d", size, height, averageDepth, imbalance);
+    }
+}
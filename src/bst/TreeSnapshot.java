@@ -0,0 +1,163 @@
+package bst;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The TreeSnapshot class reads and writes the binary snapshot format of a BinarySearchTree.
+ * <p>
+ * Layout (all numbers big-endian):
+ * <pre>
+ * header   int magic "BSTS", int version, int flags (version 2 only), int count
+ * records  count x 48 bytes, in tree order:
+ *          int nameOffset, int nameLength, int capitalOffset, int capitalLength (-1 for none),
+ *          long population, double gdp, double area, double happiness
+ * order    count x int: record numbers in happiness index order
+ * strings  int length, then the UTF-8 bytes of all names and capitals
+ * </pre>
+ * Because records are stored in tree order and the happiness order is stored too, loading builds both
+ * balanced trees directly, with no parsing, sorting or rebalancing. Flag bit 0 records that the tree
+ * orders names by normalized keys; version 1 files have no flags and always use plain names.
+ */
+
+class TreeSnapshot {
+    private static final int MAGIC = 0x42535453; // "BSTS"
+    private static final int VERSION = 2; // Format version written by this class.
+    private static final int NORMALIZED_KEYS = 1; // Flag of trees ordered by normalized keys.
+    private static final int RECORD_BYTES = 4 * Integer.BYTES + Long.BYTES + 3 * Double.BYTES; // Size of a record.
+
+    private TreeSnapshot() {
+    }
+
+    /**
+     * Write a snapshot of a tree.
+     *
+     * @param tree The tree to save.
+     * @param path The path of the snapshot file, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    
+    static void save(BinarySearchTree tree, Path path) throws IOException {
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(tree.hasNormalizedKeys() ? NORMALIZED_KEYS : 0);
+            out.writeInt(tree.size());
+
+            for (Country country : tree) {
+                byte[] name = country.getCountryName().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(strings.size());
+                out.writeInt(name.length);
+                strings.write(name);
+                if (country.getCapital() == null) {
+                    out.writeInt(0);
+                    out.writeInt(-1);
+                } else {
+                    byte[] capital = country.getCapital().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(strings.size());
+                    out.writeInt(capital.length);
+                    strings.write(capital);
+                }
+                out.writeLong(country.getPopulation());
+                out.writeDouble(country.getGdp());
+                out.writeDouble(country.getArea());
+                out.writeDouble(country.getHappiness());
+            }
+
+            HappinessIndex index = tree.happinessIndex();
+            for (HappinessIndex.Entry current = index.root == null ? null : NodeTree.minValueNode(index.root);
+                 current != null; current = NodeTree.successor(current)) {
+                out.writeInt(tree.rank(current.getCountryName()));
+            }
+
+            out.writeInt(strings.size());
+            strings.writeTo(out);
+        }
+    }
+
+    /**
+     * Read a snapshot into a new tree.
+     *
+     * @param path     The path of the snapshot file.
+     * @param balanced true to create a self-balancing tree for later updates.
+     * @return The loaded tree.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    
+    static BinarySearchTree load(Path path, boolean balanced) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < 3 * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a country tree snapshot: " + path);
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+        int headerBytes = (version == 1 ? 3 : 4) * Integer.BYTES;
+        if (buffer.limit() < headerBytes) {
+            throw new IOException("Truncated snapshot: " + path);
+        }
+        int flags = version == 1 ? 0 : buffer.getInt(2 * Integer.BYTES);
+        int count = buffer.getInt(headerBytes - Integer.BYTES);
+        long orderStart = headerBytes + (long) count * RECORD_BYTES;
+        long stringsStart = orderStart + (long) count * Integer.BYTES + Integer.BYTES;
+        if (count < 0 || stringsStart > buffer.limit()) {
+            throw new IOException("Truncated snapshot: " + path);
+        }
+        int stringsLength = buffer.getInt((int) stringsStart - Integer.BYTES);
+        if (stringsLength < 0 || stringsStart + stringsLength > buffer.limit()) {
+            throw new IOException("Truncated snapshot: " + path);
+        }
+        byte[] strings = new byte[stringsLength];
+        buffer.get((int) stringsStart, strings);
+
+        Country[] countries = new Country[count];
+        for (int i = 0; i < count; i++) {
+            int record = headerBytes + i * RECORD_BYTES;
+            int capitalLength = buffer.getInt(record + 12);
+            countries[i] = new Country(
+                    decode(strings, buffer.getInt(record), buffer.getInt(record + 4), path),
+                    capitalLength < 0 ? null : decode(strings, buffer.getInt(record + 8), capitalLength, path),
+                    buffer.getLong(record + 16),
+                    buffer.getDouble(record + 24),
+                    buffer.getDouble(record + 32),
+                    buffer.getDouble(record + 40));
+        }
+        Country[] byHappiness = new Country[count];
+        for (int i = 0; i < count; i++) {
+            int record = buffer.getInt((int) orderStart + i * Integer.BYTES);
+            if (record < 0 || record >= count) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            byHappiness[i] = countries[record];
+        }
+
+        BinarySearchTree tree = new BinarySearchTree(balanced, (flags & NORMALIZED_KEYS) != 0);
+        tree.buildFromSorted(countries, byHappiness, count);
+        return tree;
+    }
+
+    // Helper method to decode a string of the string table, checking its bounds.
+    private static String decode(byte[] strings, int offset, int length, Path path) throws IOException {
+        if (offset < 0 || length < 0 || offset > strings.length - length) {
+            throw new IOException("Corrupt snapshot: " + path);
+        }
+        return new String(strings, offset, length, StandardCharsets.UTF_8);
+    }
+}
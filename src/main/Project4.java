@@ -16,25 +16,39 @@
 // Import Statements: Imports all the necessary classes for your application or program
 package main;
 
-import java.io.File;
 import bst.BinarySearchTree;
+import bst.Country;
+import bst.CountryCsvLoader;
+import bst.CountryStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.Scanner;
-import java.io.FileNotFoundException;
 
 /**
  * The main class for Project 4 - Binary Search Trees.
  */
 public class Project4 {
+    private static final String DEFAULT_CSV_PATH = "src/data/Countries4.csv"; // Used when no path is given.
+    private static final int SYNC_EVERY = 1; // Changes per forced log write; every menu change is saved at once.
+    private static final long COMPACT_AFTER_BYTES = 1 << 20; // Log size that triggers a new snapshot.
+    private static final int LOOKUP_CACHE_SLOTS = 64; // Cached names; searches repeat a few popular countries.
+
     /**
      * The entry point for the program.
-     * Initializes a binary search tree (tree) and loads data from a CSV file using the loadCSVData method.
-     * Then, it displays a menu system for user interaction.
+     * Opens the country store for a CSV file using the openStore method, which loads the binary search tree (tree)
+     * and keeps the changes made through the menu across runs. Then, it displays a menu system for user interaction.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: an optional path to the CSV file, src/data/Countries4.csv by default.
      */
     public static void main(String[] args) {
-        BinarySearchTree tree = new BinarySearchTree();
-        loadCSVData(tree);
+        CountryStore store = openStore(args.length > 0 ? args[0] : DEFAULT_CSV_PATH);
+        if (store == null) {
+            return;
+        }
+        BinarySearchTree tree = store.getTree();
+        tree.enableLookupCache(LOOKUP_CACHE_SLOTS);
 
         Scanner scanner = new Scanner(System.in);
         int choice = 0;
@@ -59,10 +73,10 @@ public class Project4 {
                             printPostorder(tree);
                             break;
                         case 4:
-                            insertCountry(tree, scanner);
+                            insertCountry(store, scanner);
                             break;
                         case 5:
-                            deleteCountry(tree, scanner);
+                            deleteCountry(store, scanner);
                             break;
                         case 6:
                             searchAndPrintCountry(tree, scanner);
@@ -74,6 +88,7 @@ public class Project4 {
                             printTopCountries(tree, scanner);
                             break;
                         case 9:
+                            closeStore(store);
                             System.out.println("Have a good day!");
                             break;
                     }
@@ -88,34 +103,84 @@ public class Project4 {
     }
 
     /**
-     * Loads data from a CSV file and adds it to the binary search tree.
-     * An error message is displayed if the CSV file is not found or if there are any parsing errors.
+     * Opens the country store for a CSV file. The store keeps a binary snapshot next to the CSV file
+     * (with a ".snapshot" suffix) and a write-ahead log of the changes made since (".wal" suffix).
+     * The snapshot is seeded from the CSV file with the loadCSVData method only when it does not exist yet,
+     * and the logged changes are replayed on top of it. Once seeded, the snapshot and log are the data:
+     * a newer CSV file only triggers a warning, and deleting the snapshot seeds it again, discarding the log.
+     * An error message is displayed if the data cannot be loaded or the files cannot be written.
      *
-     * @param tree The binary search tree to load data into.
+     * @param path The path of the CSV file.
+     * @return The opened store, or null if it could not be opened.
      */
-    private static void loadCSVData(BinarySearchTree tree) {
+    private static CountryStore openStore(String path) {
+        Path csv = Path.of(path);
+        Path snapshot = Path.of(path + ".snapshot");
+        Path log = Path.of(path + ".wal");
         try {
-            File file = new File("src/data/Countries4.csv");
-            Scanner scanner = new Scanner(file);
-            if (scanner.hasNextLine()) {
-                scanner.nextLine();
-            }
-
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String[] data = line.split(",");
-
-                if (data.length == 6) {
-                    String name = data[0];
-                    double happiness = Double.parseDouble(data[5]);
-                    tree.insert(name, happiness);
+            if (!Files.exists(snapshot)) {
+                BinarySearchTree tree = loadCSVData(csv);
+                if (tree != null) {
+                    if (Files.deleteIfExists(log)) {
+                        System.err.println("Discarded the change log of the previous data; starting again from the CSV file.");
+                    }
+                    tree.saveSnapshot(snapshot);
                 }
+            } else if (isNewer(csv, snapshot)) {
+                System.err.println("The CSV file is newer than the saved data, which is kept with all changes. "
+                        + "Delete " + snapshot + " to load the CSV file again.");
             }
-
+            CountryStore store = CountryStore.open(snapshot, log, SYNC_EVERY, COMPACT_AFTER_BYTES);
             System.out.println("Data loaded into the binary search tree.");
-            scanner.close();
-        } catch (FileNotFoundException e) {
+            return store;
+        } catch (IOException e) {
+            System.err.println("Data could not be loaded or saved: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads data from a CSV file into a new, self-balancing binary search tree.
+     * An error message is displayed if the CSV file is not found.
+     *
+     * @param csv The path of the CSV file.
+     * @return The binary search tree holding the loaded data, or null if the file is not found.
+     * @throws IOException If the file exists but cannot be read.
+     */
+    private static BinarySearchTree loadCSVData(Path csv) throws IOException {
+        try {
+            return CountryCsvLoader.load(csv, true);
+        } catch (NoSuchFileException e) {
             System.err.println("CSV file not found. Make sure it is in the 'data' folder.");
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a file exists and was modified after another one, or the other one does not exist.
+     *
+     * @param file  The file expected to be newer.
+     * @param other The file to compare with.
+     * @return true if file exists and is newer than other.
+     * @throws IOException If the modification times cannot be read.
+     */
+    private static boolean isNewer(Path file, Path other) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        return !Files.exists(other) || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(other)) > 0;
+    }
+
+    /**
+     * Closes the country store, writing any pending changes.
+     *
+     * @param store The store to close.
+     */
+    private static void closeStore(CountryStore store) {
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.err.println("Changes could not be saved: " + e.getMessage());
         }
     }
 
@@ -168,32 +233,42 @@ public class Project4 {
     }
 
     /**
-     * Prompts the user to input a country name and its happiness rating, and adds it to the binary tree.
+     * Prompts the user to input a country name and its happiness rating, and adds it to the binary tree
+     * through the store, so that the change is kept across runs.
      *
-     * @param tree    The binary search tree to add the country to.
+     * @param store   The country store to add the country to.
      * @param scanner The scanner for user input.
      */
-    private static void insertCountry(BinarySearchTree tree, Scanner scanner) {
+    private static void insertCountry(CountryStore store, Scanner scanner) {
         System.out.print("Enter country name: ");
         String name = scanner.nextLine();
         System.out.print("Enter country happiness: ");
         double happiness = scanner.nextDouble();
         scanner.nextLine();
-        tree.insert(name, happiness);
-        System.out.println(name + " with happiness of " + happiness + " is inserted.");
+        try {
+            store.insert(new Country(name, happiness));
+            System.out.println(name + " with happiness of " + happiness + " is inserted.");
+        } catch (IOException e) {
+            System.err.println(name + " could not be saved: " + e.getMessage());
+        }
     }
 
     /**
-     * Asks the user to input a country name for deletion, and removes it from the binary search tree.
+     * Asks the user to input a country name for deletion, and removes it from the binary search tree
+     * through the store, so that the change is kept across runs.
      *
-     * @param tree    The binary search tree to remove the country from.
+     * @param store   The country store to remove the country from.
      * @param scanner The scanner for user input.
      */
-    private static void deleteCountry(BinarySearchTree tree, Scanner scanner) {
+    private static void deleteCountry(CountryStore store, Scanner scanner) {
         System.out.print("Enter country name: ");
         String name = scanner.nextLine();
-        tree.delete(name);
-        System.out.println(name + " is deleted from the binary search tree.");
+        try {
+            store.delete(name);
+            System.out.println(name + " is deleted from the binary search tree.");
+        } catch (IOException e) {
+            System.err.println(name + " could not be deleted: " + e.getMessage());
+        }
     }
 
     /**
@@ -230,7 +305,7 @@ public class Project4 {
         int count = scanner.nextInt();
         scanner.nextLine();
         
-        String[] bottomCountries = tree.getBottomCountries(count);
+        Country[] bottomCountries = tree.getBottomCountryEntries(count);
        
         if (bottomCountries.length == 0 ) {
             System.out.println("No countries found.");
@@ -238,9 +313,8 @@ public class Project4 {
             System.out.println("Bottom " + count + " countries by happiness:");
             System.out.println("Name                                   Happiness");
             System.out.println("-----------------------------------------------------------------");
-            for (String country : bottomCountries) {
-                double happiness = tree.find(country);
-                System.out.printf("%-40s %-10s%n", country, happiness);
+            for (Country country : bottomCountries) {
+                System.out.printf("%-40s %-10s%n", country.getCountryName(), country.getHappiness());
             }
         }
     }
@@ -257,7 +331,7 @@ public class Project4 {
         int count = scanner.nextInt();
         scanner.nextLine();
 
-        String[] topCountries = tree.getTopCountries(count);
+        Country[] topCountries = tree.getTopCountryEntries(count);
 
         if (topCountries.length == 0) {
             System.out.println("No countries found.");
@@ -266,9 +340,8 @@ public class Project4 {
             System.out.println("Name                                   Happiness");
             System.out.println("-----------------------------------------------------------------");
 
-            for (String country : topCountries) {
-                double happiness = tree.find(country);
-                System.out.printf("%-40s %-10.3f%n", country, happiness);
+            for (Country country : topCountries) {
+                System.out.printf("%-40s %-10.3f%n", country.getCountryName(), country.getHappiness());
             }
         }
     }
@@ -0,0 +1,137 @@
+package bst;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Differential test of BinarySearchTree against java.util.TreeMap.
+ * <p>
+ * Runs a long random sequence of inserts, deletes, lookups and batch operations on a plain and a
+ * balanced tree, with and without normalized keys, and on a TreeMap, over a small key space so that
+ * most deletes hit nodes with two children. It compares sizes, lookups, full records, inorder and
+ * happiness order, and the AVL invariant.
+ */
+
+class BinarySearchTreeDifferentialTest {
+    private static final int OPERATIONS = 200_000; // Random operations per tree.
+    private static final int KEY_SPACE = 2000; // Distinct names used by the operations.
+    private static final int FULL_CHECK_EVERY = 997; // Operations between full structure comparisons.
+
+    /**
+     * Runs random operations on a tree and a TreeMap and compares them. Trees with normalized keys get
+     * names in random case, so the tree's name order differs from the raw-name tie order of the
+     * happiness index, and batch inserts and deletes exercise the rebuild paths.
+     *
+     * @param balanced   true to test the self-balancing tree.
+     * @param normalized true to test a tree with normalized keys.
+     */
+    
+    @ParameterizedTest(name = "balanced={0}, normalized={1}")
+    @CsvSource({"false, false", "true, false", "false, true", "true, true"})
+    void matchesTreeMap(boolean balanced, boolean normalized) {
+        Random random = new Random((balanced ? 2 : 1) + (normalized ? 2 : 0));
+        BinarySearchTree tree = new BinarySearchTree(balanced, normalized);
+        TreeMap<String, Country> expected = new TreeMap<>(); // Keyed by the name as the tree orders it.
+        for (int i = 0; i < OPERATIONS; i++) {
+            String name = randomName(normalized, random);
+            int operation = random.nextInt(100);
+            if (operation < 44) {
+                Country country = randomCountry(name, i, random);
+                tree.insert(country);
+                expected.putIfAbsent(keyOf(name, normalized), country);
+            } else if (operation < 88) {
+                tree.delete(name);
+                expected.remove(keyOf(name, normalized));
+            } else if (operation < 98) {
+                Country country = expected.get(keyOf(name, normalized));
+                assertSame(country, tree.findCountry(name), "findCountry(" + name + ") at operation " + i);
+                assertEquals(country != null ? country.getHappiness() : -1, tree.find(name),
+                        "find(" + name + ") at operation " + i);
+            } else if (operation < 99) {
+                Country[] countries = new Country[random.nextInt(KEY_SPACE)];
+                int expectedInserted = 0;
+                for (int j = 0; j < countries.length; j++) {
+                    countries[j] = randomCountry(randomName(normalized, random), i, random);
+                    String key = keyOf(countries[j].getCountryName(), normalized);
+                    expectedInserted += expected.putIfAbsent(key, countries[j]) == null ? 1 : 0;
+                }
+                assertEquals(expectedInserted, tree.insertAll(countries), "insertAll count at operation " + i);
+            } else {
+                String[] names = new String[random.nextInt(KEY_SPACE)];
+                for (int j = 0; j < names.length; j++) {
+                    names[j] = randomName(normalized, random);
+                }
+                int removed = tree.deleteAll(names);
+                int expectedRemoved = 0;
+                for (String each : names) {
+                    expectedRemoved += expected.remove(keyOf(each, normalized)) == null ? 0 : 1;
+                }
+                assertEquals(expectedRemoved, removed, "deleteAll count at operation " + i);
+            }
+            assertEquals(expected.size(), tree.size(), "size at operation " + i);
+            if (i % FULL_CHECK_EVERY == 0) {
+                assertStructure(tree, expected, i);
+            }
+        }
+        assertStructure(tree, expected, OPERATIONS);
+    }
+
+    // Helper method to draw a name from the key space, in random case for normalized trees.
+    private static String randomName(boolean normalized, Random random) {
+        return (normalized && random.nextBoolean() ? "country " : "Country ") + random.nextInt(KEY_SPACE);
+    }
+
+    // Helper method to get the key a tree orders a name by; the names are plain ASCII.
+    private static String keyOf(String name, boolean normalized) {
+        return normalized ? name.toLowerCase(Locale.ROOT) : name;
+    }
+
+    // Helper method to create a country with random columns.
+    private static Country randomCountry(String name, int operation, Random random) {
+        return new Country(name, "Capital " + operation, random.nextInt(1_000_000),
+                random.nextDouble(), random.nextDouble(), random.nextInt(800) / 100.0);
+    }
+
+    /**
+     * A helper method to compare the full contents and both orders of a tree with a TreeMap.
+     *
+     * @param tree      The tree.
+     * @param expected  The expected contents.
+     * @param operation The number of the operation, for failure messages.
+     */
+    
+    private static void assertStructure(BinarySearchTree tree, TreeMap<String, Country> expected, int operation) {
+        Iterator<Country> records = expected.values().iterator();
+        for (Country country : tree) {
+            assertTrue(records.hasNext(), "inorder size at operation " + operation);
+            assertSame(records.next(), country, "inorder records at operation " + operation);
+        }
+        assertFalse(records.hasNext(), "inorder size at operation " + operation);
+
+        List<Country> byHappiness = new ArrayList<>(expected.values());
+        byHappiness.sort(Comparator.comparingDouble(Country::getHappiness).thenComparing(Country::getCountryName));
+        Collections.reverse(byHappiness);
+        assertEquals(byHappiness, Arrays.asList(tree.getTopCountryEntries(expected.size())),
+                "happiness order at operation " + operation);
+
+        if (tree.isBalanced()) {
+            assertTrue(tree.shape().getImbalance() <= 1, "AVL invariant at operation " + operation);
+        }
+        assertEquals(expected.size(), tree.shape().getSize(), "subtree sizes at operation " + operation);
+    }
+}